@@ -0,0 +1,9 @@
+-- Follow the primary using GTID auto-positioning; retries until the primary is up
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql-primary',
+    SOURCE_USER = 'root',
+    SOURCE_PASSWORD = 'rootpassword',
+    SOURCE_AUTO_POSITION = 1,
+    SOURCE_CONNECT_RETRY = 5,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
@@ -0,0 +1,350 @@
+package com.project.back_end.analytics;
+
+import com.project.back_end.dto.AnalyticsQueryDTO;
+import com.project.back_end.dto.AnalyticsResultDTO;
+import com.project.back_end.model.Appointment;
+import com.project.back_end.monitoring.ServiceMetrics;
+import com.project.back_end.repository.AppointmentRepository;
+import com.project.back_end.repository.ArchivedAppointmentRepository;
+import com.project.back_end.service.AppointmentArchiveService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Answers dashboard group-by queries from a periodically rebuilt columnar snapshot of
+ * recent appointments (hot and archived), so analytics never query MySQL per request. The snapshot is read
+ * on read-only transactions (routed to the replica) and swapped in atomically; queries
+ * scan the matching time range in parallel segments on a dedicated pool.
+ */
+@Service
+public class AppointmentAnalyticsService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentAnalyticsService.class);
+    private static final Appointment.AppointmentStatus[] STATUSES = Appointment.AppointmentStatus.values();
+    private static final int MIN_SEGMENT_ROWS = 16384;
+    
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+    
+    @Autowired
+    private AppointmentArchiveService archiveService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Value("${clinic.analytics.window-months:24}")
+    private int windowMonths;
+    
+    @Value("${clinic.analytics.load-chunk-size:20000}")
+    private int loadChunkSize;
+    
+    @Value("${clinic.analytics.parallelism:4}")
+    private int parallelism;
+    
+    private volatile AppointmentSnapshot snapshot = AppointmentSnapshot.EMPTY;
+    private ForkJoinPool scanPool;
+    
+    @PostConstruct
+    public void init() {
+        scanPool = new ForkJoinPool(parallelism);
+        serviceMetrics.registerCacheSize("analytics.appointments", () -> snapshot.size());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdown();
+    }
+    
+    /**
+     * Rebuild the snapshot from MySQL in keyset chunks and swap it in
+     */
+    @Scheduled(fixedDelayString = "${clinic.analytics.refresh-interval-ms:600000}")
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        LocalDateTime from = LocalDate.now().minusMonths(windowMonths).withDayOfMonth(1).atStartOfDay();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        
+        int size = 0;
+        int[] minutes = new int[loadChunkSize];
+        int[] doctors = new int[loadChunkSize];
+        byte[] statuses = new byte[loadChunkSize];
+        short[] specialtyIds = new short[loadChunkSize];
+        Map<String, Short> specialtyIndex = new HashMap<>();
+        List<String> specialties = new ArrayList<>();
+        
+        List<AppointmentRowSource> sources = new ArrayList<>();
+        sources.add(appointmentRepository::findAnalyticsRowsAfter);
+        if (archiveService.mayBeArchived(from)) {
+            sources.add(archivedAppointmentRepository::findAnalyticsRowsAfter);
+        }
+        for (AppointmentRowSource source : sources) {
+            long afterId = 0;
+            List<Object[]> chunk;
+            do {
+                long chunkAfterId = afterId;
+                chunk = readOnly.execute(status -> source.page(from, chunkAfterId, PageRequest.of(0, loadChunkSize)));
+                if (chunk == null) {
+                    break;
+                }
+                if (size + chunk.size() > minutes.length) {
+                    int capacity = Math.max(minutes.length * 2, size + chunk.size());
+                    minutes = Arrays.copyOf(minutes, capacity);
+                    doctors = Arrays.copyOf(doctors, capacity);
+                    statuses = Arrays.copyOf(statuses, capacity);
+                    specialtyIds = Arrays.copyOf(specialtyIds, capacity);
+                }
+                for (Object[] row : chunk) {
+                    afterId = (Long) row[0];
+                    minutes[size] = toEpochMinute((LocalDateTime) row[2]);
+                    doctors[size] = ((Long) row[1]).intValue();
+                    Appointment.AppointmentStatus appointmentStatus = (Appointment.AppointmentStatus) row[3];
+                    statuses[size] = (byte) (appointmentStatus != null ? appointmentStatus : Appointment.AppointmentStatus.SCHEDULED).ordinal();
+                    String specialty = row[4] != null ? (String) row[4] : "";
+                    specialtyIds[size] = specialtyIndex.computeIfAbsent(specialty, key -> {
+                        specialties.add(key);
+                        return (short) (specialties.size() - 1);
+                    });
+                    size++;
+                }
+            } while (chunk.size() == loadChunkSize);
+        }
+        
+        snapshot = sortByTime(size, minutes, doctors, statuses, specialtyIds, specialties.toArray(new String[0]));
+        logger.info("Analytics snapshot rebuilt with {} appointments since {} in {} ms",
+            size, from.toLocalDate(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Count appointments by status per group, over the snapshot rows matching the filters
+     */
+    public AnalyticsResultDTO query(AnalyticsQueryDTO query) {
+        AppointmentSnapshot current = snapshot;
+        if (current.builtAt == null) {
+            throw new IllegalStateException("Analytics snapshot is still loading");
+        }
+        
+        int start = query.getFrom() != null ? current.lowerBound(toEpochMinute(query.getFrom().atStartOfDay())) : 0;
+        int end = query.getTo() != null
+            ? current.lowerBound(toEpochMinute(query.getTo().plusDays(1).atStartOfDay()))
+            : current.size();
+        int doctorFilter = query.getDoctorId() != null ? query.getDoctorId().intValue() : -1;
+        short specialtyFilter = -1;
+        if (query.getSpecialty() != null && !query.getSpecialty().isBlank()) {
+            specialtyFilter = current.specialtyId(query.getSpecialty().trim());
+            if (specialtyFilter < 0) {
+                end = start;
+            }
+        }
+        byte statusFilter = -1;
+        if (query.getStatus() != null && !query.getStatus().isBlank()) {
+            try {
+                statusFilter = (byte) Appointment.AppointmentStatus.valueOf(query.getStatus().trim().toUpperCase(Locale.ROOT)).ordinal();
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown appointment status: " + query.getStatus());
+            }
+        }
+        if (end <= start) {
+            return new AnalyticsResultDTO(query.getGroupBy().name(), List.of(), 0, current.builtAt);
+        }
+        
+        Grouping grouping = new Grouping(query.getGroupBy(), current, start, end);
+        long[] counts = scan(current, grouping, start, end, doctorFilter, specialtyFilter, statusFilter);
+        
+        List<AnalyticsResultDTO.Bucket> buckets = new ArrayList<>();
+        for (int group = 0; group < grouping.groupCount; group++) {
+            int offset = group * STATUSES.length;
+            long total = 0;
+            for (int s = 0; s < STATUSES.length; s++) {
+                total += counts[offset + s];
+            }
+            if (total == 0) {
+                continue;
+            }
+            long cancelled = counts[offset + Appointment.AppointmentStatus.CANCELLED.ordinal()];
+            buckets.add(new AnalyticsResultDTO.Bucket(grouping.label(group), total,
+                counts[offset + Appointment.AppointmentStatus.SCHEDULED.ordinal()],
+                counts[offset + Appointment.AppointmentStatus.COMPLETED.ordinal()],
+                cancelled,
+                counts[offset + Appointment.AppointmentStatus.NO_SHOW.ordinal()],
+                (double) cancelled / total));
+        }
+        return new AnalyticsResultDTO(query.getGroupBy().name(), buckets, end - start, current.builtAt);
+    }
+    
+    private long[] scan(AppointmentSnapshot current, Grouping grouping, int start, int end,
+                        int doctorFilter, short specialtyFilter, byte statusFilter) {
+        int rows = end - start;
+        int segments = Math.max(1, Math.min(parallelism * 4, rows / MIN_SEGMENT_ROWS));
+        int width = grouping.groupCount * STATUSES.length;
+        if (segments == 1) {
+            return scanSegment(current, grouping, start, end, doctorFilter, specialtyFilter, statusFilter, width);
+        }
+        try {
+            return scanPool.submit(() -> IntStream.range(0, segments).parallel()
+                .mapToObj(segment -> scanSegment(current, grouping,
+                    start + (int) ((long) rows * segment / segments),
+                    start + (int) ((long) rows * (segment + 1) / segments),
+                    doctorFilter, specialtyFilter, statusFilter, width))
+                .reduce(new long[width], AppointmentAnalyticsService::sum))
+                .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Analytics query interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Analytics query failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    private static long[] scanSegment(AppointmentSnapshot current, Grouping grouping, int from, int to,
+                                      int doctorFilter, short specialtyFilter, byte statusFilter, int width) {
+        long[] counts = new long[width];
+        int[] minutes = current.epochMinutes;
+        int[] doctorIds = current.doctorIds;
+        byte[] statuses = current.statuses;
+        short[] specialtyIds = current.specialtyIds;
+        int statusCount = STATUSES.length;
+        for (int i = from; i < to; i++) {
+            if ((doctorFilter >= 0 && doctorIds[i] != doctorFilter)
+                    || (specialtyFilter >= 0 && specialtyIds[i] != specialtyFilter)
+                    || (statusFilter >= 0 && statuses[i] != statusFilter)) {
+                continue;
+            }
+            int group = grouping.groupOf(minutes[i], doctorIds[i], statuses[i], specialtyIds[i]);
+            counts[group * statusCount + statuses[i]]++;
+        }
+        return counts;
+    }
+    
+    private static long[] sum(long[] left, long[] right) {
+        long[] result = new long[left.length];
+        for (int i = 0; i < left.length; i++) {
+            result[i] = left[i] + right[i];
+        }
+        return result;
+    }
+    
+    private static AppointmentSnapshot sortByTime(int size, int[] minutes, int[] doctors, byte[] statuses,
+                                                  short[] specialtyIds, String[] specialties) {
+        // Sort (minute, row) pairs packed into longs, then gather every column in that order
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) minutes[i] << 32) | i;
+        }
+        Arrays.parallelSort(order);
+        int[] sortedMinutes = new int[size];
+        int[] sortedDoctors = new int[size];
+        byte[] sortedStatuses = new byte[size];
+        short[] sortedSpecialties = new short[size];
+        for (int i = 0; i < size; i++) {
+            int row = (int) order[i];
+            sortedMinutes[i] = minutes[row];
+            sortedDoctors[i] = doctors[row];
+            sortedStatuses[i] = statuses[row];
+            sortedSpecialties[i] = specialtyIds[row];
+        }
+        int[] distinctDoctorIds = Arrays.stream(sortedDoctors).distinct().sorted().toArray();
+        return new AppointmentSnapshot(sortedMinutes, sortedDoctors, sortedStatuses, sortedSpecialties,
+            specialties, distinctDoctorIds, LocalDateTime.now());
+    }
+    
+    private static int toEpochMinute(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+    
+    /**
+     * Maps a row to a dense group index and a group index back to its label
+     */
+    private static final class Grouping {
+        
+        private final AnalyticsQueryDTO.GroupBy groupBy;
+        private final AppointmentSnapshot snapshot;
+        private final int firstDay;
+        private final int[] monthOfDay;
+        private final YearMonth firstMonth;
+        private final int groupCount;
+        
+        Grouping(AnalyticsQueryDTO.GroupBy groupBy, AppointmentSnapshot snapshot, int start, int end) {
+            this.groupBy = groupBy;
+            this.snapshot = snapshot;
+            this.firstDay = snapshot.epochMinutes[start] / 1440;
+            int lastDay = snapshot.epochMinutes[end - 1] / 1440;
+            this.firstMonth = YearMonth.from(LocalDate.ofEpochDay(firstDay));
+            if (groupBy == AnalyticsQueryDTO.GroupBy.MONTH) {
+                // Day-to-month lookup, so the scan does no calendar math per row
+                monthOfDay = new int[lastDay - firstDay + 1];
+                for (int day = firstDay; day <= lastDay; day++) {
+                    YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+                    monthOfDay[day - firstDay] = (int) firstMonth.until(month, ChronoUnit.MONTHS);
+                }
+            } else {
+                monthOfDay = null;
+            }
+            this.groupCount = switch (groupBy) {
+                case HOUR_OF_DAY -> 24;
+                case DAY_OF_WEEK -> 7;
+                case DAY -> lastDay - firstDay + 1;
+                case MONTH -> monthOfDay[monthOfDay.length - 1] + 1;
+                case SPECIALTY -> snapshot.specialties.length;
+                case DOCTOR -> snapshot.distinctDoctorIds.length;
+                case STATUS -> STATUSES.length;
+            };
+        }
+        
+        int groupOf(int minute, int doctorId, byte status, short specialtyId) {
+            return switch (groupBy) {
+                case HOUR_OF_DAY -> (minute / 60) % 24;
+                // 1970-01-01 was a Thursday; 0 is Monday
+                case DAY_OF_WEEK -> Math.floorMod(minute / 1440 + 3, 7);
+                case DAY -> minute / 1440 - firstDay;
+                case MONTH -> monthOfDay[minute / 1440 - firstDay];
+                case SPECIALTY -> specialtyId;
+                case DOCTOR -> Arrays.binarySearch(snapshot.distinctDoctorIds, doctorId);
+                case STATUS -> status;
+            };
+        }
+        
+        String label(int group) {
+            return switch (groupBy) {
+                case HOUR_OF_DAY -> String.format("%02d:00", group);
+                case DAY_OF_WEEK -> DayOfWeek.of(group + 1).name();
+                case DAY -> LocalDate.ofEpochDay(firstDay + group).toString();
+                case MONTH -> firstMonth.plusMonths(group).toString();
+                case SPECIALTY -> snapshot.specialties[group];
+                case DOCTOR -> String.valueOf(snapshot.distinctDoctorIds[group]);
+                case STATUS -> STATUSES[group].name();
+            };
+        }
+    }
+}
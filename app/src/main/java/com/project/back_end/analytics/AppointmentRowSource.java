@@ -0,0 +1,16 @@
+package com.project.back_end.analytics;
+
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One keyset page of appointment rows from a time onwards, after the given id.
+ * Implemented by the hot and archive repositories' matching queries.
+ */
+@FunctionalInterface
+interface AppointmentRowSource {
+    
+    List<Object[]> page(LocalDateTime from, Long afterId, Pageable pageable);
+}
@@ -0,0 +1,71 @@
+package com.project.back_end.analytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable column-oriented copy of the appointment table for analytics. Row i is
+ * (doctorIds[i], epochMinutes[i], statuses[i], specialtyIds[i]); rows are sorted by
+ * epochMinutes so a time filter is a binary-searched index range.
+ */
+public final class AppointmentSnapshot {
+    
+    static final AppointmentSnapshot EMPTY = new AppointmentSnapshot(
+        new int[0], new int[0], new byte[0], new short[0], new String[0], new int[0], null);
+    
+    // Minutes since 1970-01-01T00:00 in clinic local time, so hour and day need no zone math
+    final int[] epochMinutes;
+    final int[] doctorIds;
+    // Appointment.AppointmentStatus ordinal
+    final byte[] statuses;
+    // Index into specialties
+    final short[] specialtyIds;
+    final String[] specialties;
+    // Distinct doctor ids, sorted, for dense doctor group indexes
+    final int[] distinctDoctorIds;
+    final LocalDateTime builtAt;
+    
+    AppointmentSnapshot(int[] epochMinutes, int[] doctorIds, byte[] statuses, short[] specialtyIds,
+                        String[] specialties, int[] distinctDoctorIds, LocalDateTime builtAt) {
+        this.epochMinutes = epochMinutes;
+        this.doctorIds = doctorIds;
+        this.statuses = statuses;
+        this.specialtyIds = specialtyIds;
+        this.specialties = specialties;
+        this.distinctDoctorIds = distinctDoctorIds;
+        this.builtAt = builtAt;
+    }
+    
+    public int size() {
+        return epochMinutes.length;
+    }
+    
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+    
+    /**
+     * First row with epochMinutes >= minute
+     */
+    int lowerBound(int minute) {
+        int low = 0;
+        int high = epochMinutes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochMinutes[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    short specialtyId(String specialty) {
+        for (short i = 0; i < specialties.length; i++) {
+            if (specialties[i].equalsIgnoreCase(specialty)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
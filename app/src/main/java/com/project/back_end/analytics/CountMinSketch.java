@@ -0,0 +1,113 @@
+package com.project.back_end.analytics;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-Min sketch of item frequencies in fixed memory (depth x width counters).
+ * Estimates never undercount and overcount by at most about e/width of the total with
+ * probability 1 - e^-depth. Sketches with the same dimensions merge by adding counters.
+ */
+public final class CountMinSketch {
+    
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    
+    private final int depth;
+    private final int width;
+    private final long[] counts;
+    private long total;
+    
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Count-Min sketch depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counts = new long[depth * width];
+    }
+    
+    public synchronized void add(String item, long count) {
+        long[] hashes = hashes(item);
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + bucket(hashes, row)] += count;
+        }
+        total += count;
+    }
+    
+    public synchronized long estimate(String item) {
+        long[] hashes = hashes(item);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * width + bucket(hashes, row)]);
+        }
+        return min;
+    }
+    
+    public synchronized long total() {
+        return total;
+    }
+    
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge Count-Min sketches of different dimensions");
+        }
+        long[] otherCounts;
+        long otherTotal;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherTotal = other.total;
+        }
+        synchronized (this) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += otherCounts[i];
+            }
+            total += otherTotal;
+        }
+    }
+    
+    public CountMinSketch copy() {
+        CountMinSketch copy = new CountMinSketch(depth, width);
+        copy.merge(this);
+        return copy;
+    }
+    
+    /**
+     * depth, width, total, then the counters, for shipping sketches between nodes
+     */
+    public synchronized byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(16 + counts.length * 8);
+        buffer.putInt(depth).putInt(width).putLong(total);
+        for (long count : counts) {
+            buffer.putLong(count);
+        }
+        return buffer.array();
+    }
+    
+    public static CountMinSketch fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt());
+        if (bytes.length != 16 + sketch.counts.length * 8) {
+            throw new IllegalArgumentException("Invalid Count-Min sketch encoding");
+        }
+        sketch.total = buffer.getLong();
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = buffer.getLong();
+        }
+        return sketch;
+    }
+    
+    private static long[] hashes(String item) {
+        HashCode hash = HASH.hashString(item, StandardCharsets.UTF_8);
+        ByteBuffer bytes = ByteBuffer.wrap(hash.asBytes());
+        return new long[] {bytes.getLong(), bytes.getLong()};
+    }
+    
+    // Row hashes derived from two base hashes (Kirsch-Mitzenmacher)
+    private int bucket(long[] hashes, int row) {
+        return (int) Math.floorMod(hashes[0] + row * hashes[1], (long) width);
+    }
+}
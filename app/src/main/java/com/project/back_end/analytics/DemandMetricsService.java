@@ -0,0 +1,225 @@
+package com.project.back_end.analytics;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.project.back_end.dto.SpecialtyDemandDTO;
+import com.project.back_end.dto.UniquePatientsDTO;
+import com.project.back_end.monitoring.ServiceMetrics;
+import com.project.back_end.outbox.AppointmentChangeEvent;
+import com.project.back_end.outbox.AppointmentEventSubscriber;
+import com.project.back_end.repository.AppointmentRepository;
+import com.project.back_end.repository.ArchivedAppointmentRepository;
+import com.project.back_end.service.AppointmentArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate dashboard metrics in fixed memory per key: a HyperLogLog of patient ids per
+ * doctor per month, and a daily Count-Min/top-K sketch of specialty searches. Queries over
+ * several months or days merge the per-period sketches, and the sketches serialize so
+ * other nodes' sketches can be merged in the same way.
+ *
+ * Patient sketches are seeded from appointment history at startup and then follow
+ * bookings from the outbox relay; search sketches count this node's searches only.
+ */
+@Service
+public class DemandMetricsService implements AppointmentEventSubscriber {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DemandMetricsService.class);
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    
+    private record DoctorMonth(long doctorId, YearMonth month) {
+    }
+    
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+    
+    @Autowired
+    private AppointmentArchiveService archiveService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Value("${clinic.metrics.hll-precision:12}")
+    private int hllPrecision;
+    
+    @Value("${clinic.metrics.patient-retention-months:13}")
+    private int patientRetentionMonths;
+    
+    @Value("${clinic.metrics.search-retention-days:35}")
+    private int searchRetentionDays;
+    
+    @Value("${clinic.metrics.cms-depth:4}")
+    private int cmsDepth;
+    
+    @Value("${clinic.metrics.cms-width:1024}")
+    private int cmsWidth;
+    
+    @Value("${clinic.metrics.top-k-capacity:32}")
+    private int topKCapacity;
+    
+    @Value("${clinic.metrics.seed-chunk-size:20000}")
+    private int seedChunkSize;
+    
+    private final Map<DoctorMonth, HyperLogLog> patientsByDoctorMonth = new ConcurrentHashMap<>();
+    private final Map<LocalDate, HeavyHitters> specialtySearchesByDay = new ConcurrentHashMap<>();
+    
+    /**
+     * Seed the patient sketches from the retained months of appointment history
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long start = System.currentTimeMillis();
+        LocalDateTime from = oldestRetainedMonth().atDay(1).atStartOfDay();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        
+        List<AppointmentRowSource> sources = new ArrayList<>();
+        sources.add(appointmentRepository::findDoctorPatientPairsAfter);
+        if (archiveService.mayBeArchived(from)) {
+            sources.add(archivedAppointmentRepository::findDoctorPatientPairsAfter);
+        }
+        long seeded = 0;
+        for (AppointmentRowSource source : sources) {
+            long afterId = 0;
+            List<Object[]> chunk;
+            do {
+                long chunkAfterId = afterId;
+                chunk = readOnly.execute(status -> source.page(from, chunkAfterId, PageRequest.of(0, seedChunkSize)));
+                if (chunk == null) {
+                    break;
+                }
+                for (Object[] row : chunk) {
+                    afterId = (Long) row[0];
+                    recordPatient((Long) row[1], (Long) row[2], (LocalDateTime) row[3]);
+                }
+                seeded += chunk.size();
+            } while (chunk.size() == seedChunkSize);
+        }
+        
+        serviceMetrics.registerCacheSize("metrics.patient.sketches", patientsByDoctorMonth::size);
+        serviceMetrics.registerCacheSize("metrics.search.sketches", specialtySearchesByDay::size);
+        logger.info("Seeded distinct-patient sketches from {} appointments in {} ms",
+            seeded, System.currentTimeMillis() - start);
+    }
+    
+    @Override
+    public void onAppointmentChange(AppointmentChangeEvent event) {
+        if (AppointmentChangeEvent.BOOKED.equals(event.getType())) {
+            recordPatient(event.getDoctorId(), event.getPatientId(), event.getAppointmentTime());
+        }
+    }
+    
+    /**
+     * Count one availability search for a specialty
+     */
+    public void recordSpecialtySearch(String specialty) {
+        if (specialty == null || specialty.isBlank()) {
+            return;
+        }
+        specialtySearchesByDay
+            .computeIfAbsent(LocalDate.now(), day -> new HeavyHitters(cmsDepth, cmsWidth, topKCapacity))
+            .add(specialty.trim().toLowerCase(Locale.ROOT));
+    }
+    
+    /**
+     * Estimated distinct patients for a doctor in each month of [from, to] and across the range
+     */
+    public UniquePatientsDTO getUniquePatients(Long doctorId, YearMonth from, YearMonth to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Range end must not be before its start");
+        }
+        if (from.until(to, ChronoUnit.MONTHS) >= patientRetentionMonths) {
+            throw new RuntimeException("Range cannot exceed " + patientRetentionMonths + " months");
+        }
+        Map<String, Long> byMonth = new LinkedHashMap<>();
+        HyperLogLog union = new HyperLogLog(hllPrecision);
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            HyperLogLog sketch = patientsByDoctorMonth.get(new DoctorMonth(doctorId, month));
+            if (sketch != null) {
+                union.merge(sketch);
+                byMonth.put(month.toString(), sketch.estimate());
+            } else {
+                byMonth.put(month.toString(), 0L);
+            }
+        }
+        return new UniquePatientsDTO(doctorId, from.toString(), to.toString(), byMonth, union.estimate());
+    }
+    
+    /**
+     * The k most searched specialties over the last days days, including today
+     */
+    public List<SpecialtyDemandDTO> getTopSpecialties(int days, int k) {
+        if (days < 1 || days > searchRetentionDays) {
+            throw new RuntimeException("Days must be between 1 and " + searchRetentionDays);
+        }
+        if (k < 1 || k > topKCapacity) {
+            throw new RuntimeException("K must be between 1 and " + topKCapacity);
+        }
+        HeavyHitters merged = new HeavyHitters(cmsDepth, cmsWidth, topKCapacity);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < days; i++) {
+            HeavyHitters day = specialtySearchesByDay.get(today.minusDays(i));
+            if (day != null) {
+                merged.merge(day);
+            }
+        }
+        return merged.top(k).stream()
+            .map(entry -> new SpecialtyDemandDTO(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+    
+    /**
+     * Drop sketches that have aged out, keeping memory bounded by the retention settings
+     */
+    @Scheduled(cron = "${clinic.metrics.eviction-cron:0 15 0 * * *}")
+    public void evictExpired() {
+        YearMonth oldestMonth = oldestRetainedMonth();
+        LocalDate oldestDay = LocalDate.now().minusDays(searchRetentionDays - 1L);
+        patientsByDoctorMonth.keySet().removeIf(key -> key.month().isBefore(oldestMonth));
+        specialtySearchesByDay.keySet().removeIf(day -> day.isBefore(oldestDay));
+    }
+    
+    private void recordPatient(Long doctorId, Long patientId, LocalDateTime appointmentTime) {
+        if (doctorId == null || patientId == null || appointmentTime == null) {
+            return;
+        }
+        YearMonth month = YearMonth.from(appointmentTime);
+        if (month.isBefore(oldestRetainedMonth())) {
+            return;
+        }
+        patientsByDoctorMonth
+            .computeIfAbsent(new DoctorMonth(doctorId, month), key -> new HyperLogLog(hllPrecision))
+            .add(HASH.hashLong(patientId).asLong());
+    }
+    
+    private YearMonth oldestRetainedMonth() {
+        return YearMonth.now().minusMonths(patientRetentionMonths - 1L);
+    }
+}
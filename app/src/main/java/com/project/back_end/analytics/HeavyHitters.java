@@ -0,0 +1,92 @@
+package com.project.back_end.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Approximate top-K items: a Count-Min sketch for frequencies plus at most capacity
+ * candidate items with the highest estimates seen so far. Merging adds the sketches
+ * and re-ranks the union of both candidate sets against the merged counts.
+ */
+public final class HeavyHitters {
+    
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<String, Long> candidates = new HashMap<>();
+    
+    public HeavyHitters(int depth, int width, int capacity) {
+        this(new CountMinSketch(depth, width), capacity);
+    }
+    
+    private HeavyHitters(CountMinSketch sketch, int capacity) {
+        this.sketch = sketch;
+        this.capacity = capacity;
+    }
+    
+    public synchronized void add(String item) {
+        sketch.add(item, 1);
+        long estimate = sketch.estimate(item);
+        if (candidates.containsKey(item) || candidates.size() < capacity) {
+            candidates.put(item, estimate);
+            return;
+        }
+        String smallest = null;
+        long smallestEstimate = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (candidate.getValue() < smallestEstimate) {
+                smallest = candidate.getKey();
+                smallestEstimate = candidate.getValue();
+            }
+        }
+        if (estimate > smallestEstimate) {
+            candidates.remove(smallest);
+            candidates.put(item, estimate);
+        }
+    }
+    
+    public void merge(HeavyHitters other) {
+        Set<String> otherCandidates;
+        synchronized (other) {
+            otherCandidates = new HashSet<>(other.candidates.keySet());
+        }
+        synchronized (this) {
+            sketch.merge(other.sketch);
+            Set<String> union = new HashSet<>(candidates.keySet());
+            union.addAll(otherCandidates);
+            candidates.clear();
+            for (String item : union) {
+                candidates.put(item, sketch.estimate(item));
+            }
+            while (candidates.size() > capacity) {
+                candidates.entrySet().stream()
+                    .min(Map.Entry.comparingByValue())
+                    .ifPresent(smallest -> candidates.remove(smallest.getKey()));
+            }
+        }
+    }
+    
+    public synchronized HeavyHitters copy() {
+        HeavyHitters copy = new HeavyHitters(sketch.copy(), capacity);
+        copy.candidates.putAll(candidates);
+        return copy;
+    }
+    
+    /**
+     * Up to k items with the highest estimated counts, most frequent first
+     */
+    public synchronized List<Map.Entry<String, Long>> top(int k) {
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(candidates.entrySet());
+        ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return ranked.subList(0, Math.min(k, ranked.size())).stream()
+            .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+    
+    public synchronized long total() {
+        return sketch.total();
+    }
+}
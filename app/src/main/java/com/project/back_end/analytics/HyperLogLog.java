@@ -0,0 +1,100 @@
+package com.project.back_end.analytics;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter over 64-bit hashes. Memory is fixed at 2^precision
+ * one-byte registers regardless of how many values are added; the standard error is
+ * about 1.04 / sqrt(2^precision). Sketches with the same precision merge losslessly,
+ * so per-month or per-node sketches can be combined into the union's estimate.
+ */
+public final class HyperLogLog {
+    
+    private final int precision;
+    private final byte[] registers;
+    
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+    
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+    
+    /**
+     * Add a value by its 64-bit hash; the hash must be well mixed (e.g. murmur3)
+     */
+    public synchronized void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Sentinel bit caps the rank at 64 - precision + 1
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+    
+    public synchronized long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // Small-range correction: linear counting while registers are still empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches of different precision");
+        }
+        byte[] otherRegisters = other.snapshotRegisters();
+        synchronized (this) {
+            for (int i = 0; i < registers.length; i++) {
+                if (otherRegisters[i] > registers[i]) {
+                    registers[i] = otherRegisters[i];
+                }
+            }
+        }
+    }
+    
+    public HyperLogLog copy() {
+        return new HyperLogLog(precision, snapshotRegisters());
+    }
+    
+    /**
+     * Precision byte followed by the registers, for shipping sketches between nodes
+     */
+    public synchronized byte[] toByteArray() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+    
+    public static HyperLogLog fromByteArray(byte[] bytes) {
+        int precision = bytes[0];
+        if (bytes.length != (1 << precision) + 1) {
+            throw new IllegalArgumentException("Invalid HyperLogLog encoding");
+        }
+        return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+    
+    private synchronized byte[] snapshotRegisters() {
+        return registers.clone();
+    }
+}
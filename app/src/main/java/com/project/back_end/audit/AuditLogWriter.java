@@ -0,0 +1,195 @@
+package com.project.back_end.audit;
+
+import com.project.back_end.model.SystemLog;
+import com.project.back_end.monitoring.ServiceMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audit events to system_logs off the request path. Services call record(),
+ * which captures the request context and puts the event in a lock-free ring buffer;
+ * one background thread drains it and inserts batches with an unordered bulk write.
+ * When the buffer is full the event is dropped (DROP) or the caller waits up to
+ * clinic.audit.block-timeout-ms for space before dropping (BLOCK).
+ */
+@Component
+public class AuditLogWriter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+    
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Value("${clinic.audit.buffer-capacity:8192}")
+    private int bufferCapacity;
+    
+    @Value("${clinic.audit.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${clinic.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+    
+    @Value("${clinic.audit.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+    
+    @Value("${clinic.audit.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+    
+    @Value("${clinic.audit.retention-days:90}")
+    private long retentionDays;
+    
+    private AuditRingBuffer<SystemLog> buffer;
+    private Counter droppedEvents;
+    private Counter failedWrites;
+    private Thread writerThread;
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void start() {
+        buffer = new AuditRingBuffer<>(bufferCapacity);
+        droppedEvents = Counter.builder("clinic.audit.dropped")
+            .description("Audit events dropped because the buffer was full")
+            .register(meterRegistry);
+        failedWrites = Counter.builder("clinic.audit.write.failures")
+            .description("Audit events that could not be inserted")
+            .register(meterRegistry);
+        serviceMetrics.registerCacheSize("audit.buffer", buffer::size);
+        
+        // expireAfterSeconds on timestamp: MongoDB's TTL monitor deletes entries past retention
+        mongoTemplate.indexOps(SystemLog.class).ensureIndex(new Index()
+            .on("timestamp", Sort.Direction.ASC)
+            .expire(Duration.ofDays(retentionDays))
+            .named("ttl_system_logs_timestamp"));
+        
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    
+    /**
+     * Queue an audit event. Inside a transaction the event is queued only after commit,
+     * so rolled-back work is never audited as done.
+     */
+    public void record(String action, Long userId, String userType, Map<String, Object> details) {
+        SystemLog entry = new SystemLog(action, userId, userType, details);
+        captureRequestContext(entry);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+    
+    private void enqueue(SystemLog entry) {
+        if (buffer.offer(entry)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            while (System.nanoTime() < deadline) {
+                LockSupport.unpark(writerThread);
+                LockSupport.parkNanos(50_000);
+                if (buffer.offer(entry)) {
+                    return;
+                }
+            }
+        }
+        droppedEvents.increment();
+    }
+    
+    private void drainLoop() {
+        List<SystemLog> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running || buffer.size() > 0) {
+            buffer.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+            if (buffer.size() < batchSize) {
+                // Let a partial batch fill up rather than issuing many tiny inserts
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+    
+    private void write(List<SystemLog> batch) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SystemLog.class)
+                .insert(batch)
+                .execute();
+        } catch (BulkOperationException e) {
+            failedWrites.increment(e.getErrors().size());
+            logger.warn("Audit log batch: {} of {} inserts failed", e.getErrors().size(), batch.size());
+        } catch (RuntimeException e) {
+            failedWrites.increment(batch.size());
+            logger.warn("Audit log batch of {} could not be written: {}", batch.size(), e.toString());
+        }
+    }
+    
+    private static void captureRequestContext(SystemLog entry) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        // Behind a proxy, server.forward-headers-strategy resolves this from X-Forwarded-For,
+        // honouring only the proxies the container trusts; a client cannot forge it
+        entry.setIpAddress(request.getRemoteAddr());
+        entry.setUserAgent(request.getHeader("User-Agent"));
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            entry.setSessionId(session.getId());
+        }
+    }
+}
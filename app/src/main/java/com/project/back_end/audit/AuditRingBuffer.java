@@ -0,0 +1,88 @@
+package com.project.back_end.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer queue (Vyukov's array-based design). Each slot
+ * carries a sequence number that tells producers and the consumer whether the slot
+ * is free or filled for the current lap, so neither side ever takes a lock.
+ * Capacity is rounded up to a power of two.
+ */
+public class AuditRingBuffer<T> {
+    
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    
+    public AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * Add an element; returns false immediately if the buffer is full
+     */
+    public boolean offer(T element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Remove up to maxElements into the target list; returns how many were moved
+     */
+    public int drainTo(List<T> target, int maxElements) {
+        int drained = 0;
+        long position = head.get();
+        while (drained < maxElements) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    target.add(slots.get(index));
+                    slots.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    drained++;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                break;
+            } else {
+                position = head.get();
+            }
+        }
+        return drained;
+    }
+    
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+    
+    public int capacity() {
+        return mask + 1;
+    }
+}
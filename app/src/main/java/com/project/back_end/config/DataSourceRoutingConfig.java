@@ -0,0 +1,89 @@
+package com.project.back_end.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * Enabled with clinic.datasource.routing.enabled=true; otherwise the single
+ * spring.datasource is used as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "clinic.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+    
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.primary")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.primary.hikari")
+    public HikariDataSource primaryDataSource() {
+        return primaryDataSourceProperties().initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+    }
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = replicaDataSourceProperties().initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    /**
+     * The lazy proxy defers connection lookup to the first statement, after the
+     * transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        RoutingDataSource routingDataSource = new RoutingDataSource();
+        routingDataSource.setTargetDataSources(Map.of(
+            Route.PRIMARY, primaryDataSource(),
+            Route.REPLICA, replicaDataSource()));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource());
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    
+    static class RoutingDataSource extends AbstractRoutingDataSource {
+        
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    && !ReplicaLagGuard.isPrimaryPinned()) {
+                return Route.REPLICA;
+            }
+            return Route.PRIMARY;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.project.back_end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor for admin-triggered maintenance jobs (backfills and rebuilds), so they run
+ * off the request thread. Small and without a queue: a job that cannot start at once is
+ * rejected rather than left waiting behind another long run.
+ */
+@Configuration
+public class MaintenanceJobConfig {
+    
+    @Bean(name = "maintenanceJobExecutor")
+    public ThreadPoolTaskExecutor maintenanceJobExecutor(
+            @Value("${clinic.jobs.pool-size:2}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("maintenance-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.back_end.config;
+
+import com.project.back_end.model.Prescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Creates the prescription indexes at startup. ensureIndex is a no-op when an index
+ * with the same keys already exists, so this is safe on every boot.
+ */
+@Configuration
+public class MongoIndexConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexConfig.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @PostConstruct
+    public void createPrescriptionIndexes() {
+        IndexOperations indexes = mongoTemplate.indexOps(Prescription.class);
+        // _id is the trailing key so the keyset sort (prescriptionDate desc, _id desc) needs no in-memory sort
+        indexes.ensureIndex(new Index()
+            .on("patientId", Sort.Direction.ASC)
+            .on("prescriptionDate", Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC)
+            .named("idx_prescription_patient_date"));
+        indexes.ensureIndex(new Index()
+            .on("doctorId", Sort.Direction.ASC)
+            .on("prescriptionDate", Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC)
+            .named("idx_prescription_doctor_date"));
+        indexes.ensureIndex(new Index()
+            .on("appointmentId", Sort.Direction.ASC)
+            .on("prescriptionDate", Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC)
+            .named("idx_prescription_appointment"));
+        indexes.ensureIndex(new Index()
+            .on("prescriptionDate", Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC)
+            .named("idx_prescription_date"));
+        logger.info("Prescription indexes ensured: {}", indexes.getIndexInfo().size());
+    }
+}
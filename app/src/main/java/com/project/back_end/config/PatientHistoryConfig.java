@@ -0,0 +1,28 @@
+package com.project.back_end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor for the patient history fan-out. Bounded so a slow store cannot pile up
+ * threads; when the queue is full a lookup is rejected (the default abort policy) and
+ * reported as unavailable, so the request thread never runs one past its timeout.
+ */
+@Configuration
+public class PatientHistoryConfig {
+    
+    @Bean(name = "patientHistoryExecutor")
+    public ThreadPoolTaskExecutor patientHistoryExecutor(
+            @Value("${clinic.history.executor.pool-size:8}") int poolSize,
+            @Value("${clinic.history.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("patient-history-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
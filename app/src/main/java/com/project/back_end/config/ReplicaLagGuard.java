@@ -0,0 +1,126 @@
+package com.project.back_end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps read-your-own-writes consistent when reads go to a lagging replica.
+ * Writers record the keys they touched (e.g. "doctor:42"); a read-only transaction
+ * that asks about a key written within the lag window is pinned to the primary.
+ * Reads whose keys are only known once the transaction has started decide up front
+ * with recentlyWrittenAny and onPrimary.
+ */
+@Component
+public class ReplicaLagGuard {
+    
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+    private static final int CLEANUP_THRESHOLD = 10_000;
+    
+    @Value("${clinic.datasource.replica-lag-window-ms:2000}")
+    private long lagWindowMs;
+    
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    
+    // Latest write per key namespace, the part before ':' ("doctor" for "doctor:42")
+    private final Map<String, Long> recentNamespaces = new ConcurrentHashMap<>();
+    
+    /**
+     * Whether the current thread must read from the primary
+     */
+    public static boolean isPrimaryPinned() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+    
+    /**
+     * Remember that these keys were written; takes effect once the transaction commits
+     */
+    public void recordWrite(String... keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markWritten(keys);
+                }
+            });
+        } else {
+            markWritten(keys);
+        }
+    }
+    
+    /**
+     * Pin the current read-only transaction to the primary if any key was written recently.
+     * Must be called before the transaction's first statement, which is when the
+     * lazy connection proxy picks a datasource. Outside a transaction it does nothing:
+     * such reads already go to the primary, and there would be no completion to unpin on.
+     */
+    public void pinPrimaryIfRecentlyWritten(String... keys) {
+        long cutoff = System.currentTimeMillis() - lagWindowMs;
+        for (String key : keys) {
+            Long writtenAt = recentWrites.get(key);
+            if (writtenAt != null && writtenAt >= cutoff) {
+                pinPrimary();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Whether any key in the namespace (e.g. "doctor") was written within the lag window
+     */
+    public boolean recentlyWrittenAny(String namespace) {
+        Long writtenAt = recentNamespaces.get(namespace);
+        return writtenAt != null && writtenAt >= System.currentTimeMillis() - lagWindowMs;
+    }
+    
+    /**
+     * Run a read with every transaction it opens pinned to the primary. Call outside a
+     * transaction, before the read-only one starts; the pin is released when the read returns.
+     */
+    public <T> T onPrimary(Supplier<T> read) {
+        if (isPrimaryPinned()) {
+            return read.get();
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+    
+    private void pinPrimary() {
+        if (isPrimaryPinned() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Already pinned, possibly by onPrimary, which also releases it; or no transaction
+            // whose completion would release the pin, and so nothing to pin
+            return;
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PRIMARY_PINNED.remove();
+            }
+        });
+    }
+    
+    private void markWritten(String... keys) {
+        long now = System.currentTimeMillis();
+        for (String key : keys) {
+            recentWrites.put(key, now);
+            int separator = key.indexOf(':');
+            if (separator > 0) {
+                recentNamespaces.put(key.substring(0, separator), now);
+            }
+        }
+        if (recentWrites.size() > CLEANUP_THRESHOLD) {
+            long cutoff = now - lagWindowMs;
+            recentWrites.values().removeIf(writtenAt -> writtenAt < cutoff);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.back_end.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Enables the @Scheduled background jobs: outbox relay and cleanup, reminder load and
+ * dispatch, appointment sweeps and archiving, doctor purges and cancellation retries,
+ * report and analytics refreshes. They share Spring Boot's task scheduler, sized by
+ * spring.task.scheduling.pool.size to one thread per job so the 500 ms outbox relay and
+ * the 1 s reminder dispatch never wait behind a nightly archive or a snapshot rebuild.
+ * Startup warns when a job is added without growing the pool.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingConfig.class);
+    
+    @Autowired
+    private ScheduledAnnotationBeanPostProcessor scheduledProcessor;
+    
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkPoolSize() {
+        int jobs = scheduledProcessor.getScheduledTasks().size();
+        int threads = taskScheduler.getScheduledThreadPoolExecutor().getCorePoolSize();
+        if (threads < jobs) {
+            logger.warn("{} scheduled jobs share {} scheduler threads; a long job can delay the others. "
+                + "Raise spring.task.scheduling.pool.size", jobs, threads);
+        }
+    }
+}
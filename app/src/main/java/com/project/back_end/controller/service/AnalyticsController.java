@@ -0,0 +1,130 @@
+package com.project.back_end.controller;
+
+import com.project.back_end.analytics.AppointmentAnalyticsService;
+import com.project.back_end.analytics.DemandMetricsService;
+import com.project.back_end.dto.AnalyticsQueryDTO;
+import com.project.back_end.dto.AnalyticsResultDTO;
+import com.project.back_end.dto.SpecialtyDemandDTO;
+import com.project.back_end.dto.UniquePatientsDTO;
+import com.project.back_end.service.TokenService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+    
+    @Autowired
+    private AppointmentAnalyticsService analyticsService;
+    
+    @Autowired
+    private DemandMetricsService demandMetricsService;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    /**
+     * Dashboard group-by over the appointment snapshot, e.g. bookings by hour or cancellations by specialty
+     */
+    @PostMapping("/appointments")
+    public ResponseEntity<?> queryAppointments(
+            @Valid @RequestBody AnalyticsQueryDTO query,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can query analytics"));
+            }
+            
+            AnalyticsResultDTO result = analyticsService.query(query);
+            return ResponseEntity.ok(result);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Approximate distinct patients per month for a doctor, months given as yyyy-MM
+     */
+    @GetMapping("/doctors/{doctorId}/unique-patients")
+    public ResponseEntity<?> getUniquePatients(
+            @PathVariable Long doctorId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can query analytics"));
+            }
+            
+            UniquePatientsDTO result = demandMetricsService.getUniquePatients(
+                    doctorId, YearMonth.parse(from), YearMonth.parse(to));
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Most searched specialties in doctor availability lookups over recent days
+     */
+    @GetMapping("/specialties/top")
+    public ResponseEntity<?> getTopSpecialties(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can query analytics"));
+            }
+            
+            List<SpecialtyDemandDTO> result = demandMetricsService.getTopSpecialties(days, k);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -2,14 +2,17 @@ package com.project.back_end.controller;
 
 import com.project.back_end.model.Appointment;
 import com.project.back_end.service.AppointmentService;
+import com.project.back_end.service.AppointmentSweepService;
 import com.project.back_end.service.TokenService;
 import com.project.back_end.dto.AppointmentDTO;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +28,9 @@ public class AppointmentController {
     @Autowired
     private TokenService tokenService;
     
+    @Autowired
+    private AppointmentSweepService sweepService;
+    
     @PostMapping
     public ResponseEntity<?> bookAppointment(
             @Valid @RequestBody AppointmentDTO appointmentDTO,
@@ -121,6 +127,84 @@ public class AppointmentController {
         }
     }
     
+    /**
+     * End-of-day processing: complete every scheduled appointment on a date in bulk
+     */
+    @PostMapping("/complete-day")
+    public ResponseEntity<?> completeDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Long doctorId,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can complete appointments in bulk"));
+            }
+            
+            int updated = sweepService.completeDay(date, doctorId);
+            return ResponseEntity.ok(Map.of("updated", updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Mark appointments still scheduled before a cutoff (default start of today) as no-shows.
+     * Only closed days can be swept, so complete-day still sees today's appointments.
+     */
+    @PostMapping("/no-shows")
+    public ResponseEntity<?> markNoShows(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can mark no-shows in bulk"));
+            }
+            
+            LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+            LocalDateTime cutoff = before != null ? before : startOfToday;
+            if (cutoff.isAfter(startOfToday)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "No-shows can only be recorded for days that have closed"));
+            }
+            
+            int updated = sweepService.markNoShows(cutoff);
+            return ResponseEntity.ok(Map.of("updated", updated));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<?> cancelAppointment(
             @PathVariable Long id,
@@ -1,15 +1,21 @@
 package com.project.back_end.controller;
 
+import com.project.back_end.config.ReplicaLagGuard;
 import com.project.back_end.dto.DoctorDTO;
 import com.project.back_end.dto.DoctorAvailabilityDTO;
+import com.project.back_end.dto.DoctorDeactivationDTO;
 import com.project.back_end.dto.LoginRequestDTO;
 import com.project.back_end.dto.ApiResponseDTO;
 import com.project.back_end.model.Doctor;
+import com.project.back_end.service.DoctorDeactivationService;
+import com.project.back_end.service.DoctorDirectoryVersion;
 import com.project.back_end.service.DoctorService;
 import com.project.back_end.service.TokenService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,21 +25,40 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/doctors")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 public class DoctorController {
     
     @Autowired
     private DoctorService doctorService;
     
+    @Autowired
+    private DoctorDeactivationService doctorDeactivationService;
+    
     @Autowired
     private TokenService tokenService;
     
+    @Autowired
+    private DoctorDirectoryVersion directoryVersion;
+    
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+    
+    @Value("${clinic.doctors.cache-control.list:private, no-cache}")
+    private String listCacheControl;
+    
+    @Value("${clinic.doctors.cache-control.specialty:private, no-cache}")
+    private String specialtyCacheControl;
+    
+    @Value("${clinic.doctors.cache-control.detail:private, no-cache}")
+    private String detailCacheControl;
+    
     /**
-     * Get all doctors
+     * Get all doctors; answers 304 when If-None-Match carries the current directory ETag
      */
     @GetMapping
     public ResponseEntity<ApiResponseDTO<List<DoctorDTO>>> getAllDoctors(
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             // Validate token
             if (!tokenService.validateToken(token.replace("Bearer ", ""))) {
@@ -41,10 +66,20 @@ public class DoctorController {
                     .body(new ApiResponseDTO<>(false, "Invalid or expired token", null));
             }
             
-            List<DoctorDTO> doctors = doctorService.getAllDoctors();
-            return ResponseEntity.ok(
-                new ApiResponseDTO<>(true, "Doctors retrieved successfully", doctors)
-            );
+            String etag = directoryVersion.currentETag();
+            if (directoryVersion.matches(ifNoneMatch, etag)) {
+                return notModified(etag, listCacheControl);
+            }
+            
+            // The body carries the ETag of the version it was read at, which may trail the current one
+            DoctorDirectoryVersion.Versioned<List<DoctorDTO>> doctors = directoryVersion.read(doctorService::getAllDoctors);
+            if (directoryVersion.matches(ifNoneMatch, doctors.getEtag())) {
+                return notModified(doctors.getEtag(), listCacheControl);
+            }
+            return ResponseEntity.ok()
+                .eTag(doctors.getEtag())
+                .header(HttpHeaders.CACHE_CONTROL, listCacheControl)
+                .body(new ApiResponseDTO<>(true, "Doctors retrieved successfully", doctors.getBody()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ApiResponseDTO<>(false, "Error retrieving doctors: " + e.getMessage(), null));
@@ -68,8 +103,12 @@ public class DoctorController {
                     .body(new ApiResponseDTO<>(false, "Invalid or expired token", null));
             }
             
-            // Get available doctors for the specified criteria
-            List<DoctorAvailabilityDTO> availability = doctorService.getDoctorAvailability(date, specialty, timeSlot);
+            // Get available doctors for the specified criteria. The doctors are only known inside the
+            // read-only transaction, after it has picked a connection, so the replica pin is decided
+            // here: any doctor schedule written within the lag window sends the whole listing to the primary
+            List<DoctorAvailabilityDTO> availability = replicaLagGuard.recentlyWrittenAny("doctor")
+                ? replicaLagGuard.onPrimary(() -> doctorService.getDoctorAvailability(date, specialty, timeSlot))
+                : doctorService.getDoctorAvailability(date, specialty, timeSlot);
             
             if (availability.isEmpty()) {
                 return ResponseEntity.ok(
@@ -87,11 +126,12 @@ public class DoctorController {
     }
     
     /**
-     * Get doctor by specialty
+     * Get doctor by specialty, with the same conditional handling as the full list
      */
     @GetMapping("/specialty/{specialty}")
     public ResponseEntity<ApiResponseDTO<List<DoctorDTO>>> getDoctorsBySpecialty(
             @RequestHeader("Authorization") String token,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @PathVariable String specialty) {
         try {
             // Validate token
@@ -100,10 +140,20 @@ public class DoctorController {
                     .body(new ApiResponseDTO<>(false, "Invalid or expired token", null));
             }
             
-            List<DoctorDTO> doctors = doctorService.getDoctorsBySpecialty(specialty);
-            return ResponseEntity.ok(
-                new ApiResponseDTO<>(true, "Doctors retrieved successfully", doctors)
-            );
+            String etag = directoryVersion.currentETag();
+            if (directoryVersion.matches(ifNoneMatch, etag)) {
+                return notModified(etag, specialtyCacheControl);
+            }
+            
+            DoctorDirectoryVersion.Versioned<List<DoctorDTO>> doctors =
+                directoryVersion.read(() -> doctorService.getDoctorsBySpecialty(specialty));
+            if (directoryVersion.matches(ifNoneMatch, doctors.getEtag())) {
+                return notModified(doctors.getEtag(), specialtyCacheControl);
+            }
+            return ResponseEntity.ok()
+                .eTag(doctors.getEtag())
+                .header(HttpHeaders.CACHE_CONTROL, specialtyCacheControl)
+                .body(new ApiResponseDTO<>(true, "Doctors retrieved successfully", doctors.getBody()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ApiResponseDTO<>(false, "Error retrieving doctors by specialty: " + e.getMessage(), null));
@@ -111,11 +161,12 @@ public class DoctorController {
     }
     
     /**
-     * Get doctor by ID
+     * Get doctor by ID, with the same conditional handling as the full list
      */
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponseDTO<DoctorDTO>> getDoctorById(
             @RequestHeader("Authorization") String token,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @PathVariable Long id) {
         try {
             // Validate token
@@ -124,15 +175,25 @@ public class DoctorController {
                     .body(new ApiResponseDTO<>(false, "Invalid or expired token", null));
             }
             
-            DoctorDTO doctor = doctorService.getDoctorById(id);
-            if (doctor == null) {
+            String etag = directoryVersion.currentETag();
+            if (directoryVersion.matches(ifNoneMatch, etag)) {
+                return notModified(etag, detailCacheControl);
+            }
+            
+            DoctorDirectoryVersion.Versioned<DoctorDTO> doctor =
+                directoryVersion.read(() -> doctorService.getDoctorById(id), "doctor:" + id);
+            if (doctor.getBody() == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new ApiResponseDTO<>(false, "Doctor not found", null));
             }
+            if (directoryVersion.matches(ifNoneMatch, doctor.getEtag())) {
+                return notModified(doctor.getEtag(), detailCacheControl);
+            }
             
-            return ResponseEntity.ok(
-                new ApiResponseDTO<>(true, "Doctor retrieved successfully", doctor)
-            );
+            return ResponseEntity.ok()
+                .eTag(doctor.getEtag())
+                .header(HttpHeaders.CACHE_CONTROL, detailCacheControl)
+                .body(new ApiResponseDTO<>(true, "Doctor retrieved successfully", doctor.getBody()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ApiResponseDTO<>(false, "Error retrieving doctor: " + e.getMessage(), null));
@@ -221,10 +282,10 @@ public class DoctorController {
     }
     
     /**
-     * Delete doctor (Admin only)
+     * Deactivate doctor and cancel their upcoming appointments (Admin only)
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<ApiResponseDTO<Void>> deleteDoctor(
+    public ResponseEntity<ApiResponseDTO<DoctorDeactivationDTO>> deleteDoctor(
             @RequestHeader("Authorization") String token,
             @PathVariable Long id) {
         try {
@@ -235,18 +296,59 @@ public class DoctorController {
                     .body(new ApiResponseDTO<>(false, "Admin access required", null));
             }
             
-            boolean deleted = doctorService.deleteDoctor(id);
-            if (!deleted) {
+            DoctorDeactivationDTO result = doctorDeactivationService.deactivate(id);
+            if (result == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new ApiResponseDTO<>(false, "Doctor not found", null));
             }
             
+            if (result.isCancellationPending()) {
+                // Deactivated; the retry job cancels the remaining appointments
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                    new ApiResponseDTO<>(true, "Doctor deactivated; upcoming appointments will be cancelled shortly", result)
+                );
+            }
             return ResponseEntity.ok(
-                new ApiResponseDTO<>(true, "Doctor deleted successfully", null)
+                new ApiResponseDTO<>(true, "Doctor deactivated successfully", result)
             );
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new ApiResponseDTO<>(false, "Error deleting doctor: " + e.getMessage(), null));
+                .body(new ApiResponseDTO<>(false, "Error deactivating doctor: " + e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Permanently delete a deactivated doctor and their appointment history (Admin only)
+     */
+    @DeleteMapping("/{id}/purge")
+    public ResponseEntity<ApiResponseDTO<Long>> purgeDoctor(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long id) {
+        try {
+            // Validate token and check if user is admin
+            String jwtToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(jwtToken) || !tokenService.isAdmin(jwtToken)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponseDTO<>(false, "Admin access required", null));
+            }
+            
+            long deletedAppointments = doctorDeactivationService.purge(id);
+            return ResponseEntity.ok(
+                new ApiResponseDTO<>(true, "Doctor purged successfully", deletedAppointments)
+            );
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponseDTO<>(false, "Error purging doctor: " + e.getMessage(), null));
         }
     }
+    
+    /**
+     * 304 for a client already holding the current directory version
+     */
+    private <T> ResponseEntity<ApiResponseDTO<T>> notModified(String etag, String cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+            .build();
+    }
 }
@@ -2,15 +2,25 @@ package com.project.back_end.controller;
 
 import com.project.back_end.model.Patient;
 import com.project.back_end.model.Appointment;
+import com.project.back_end.service.PatientCohortIndex;
+import com.project.back_end.service.PatientHistoryService;
 import com.project.back_end.service.PatientService;
+import com.project.back_end.service.PatientVisitSummaryService;
 import com.project.back_end.service.AppointmentService;
 import com.project.back_end.service.TokenService;
+import com.project.back_end.dto.CohortQueryDTO;
+import com.project.back_end.dto.CohortResultDTO;
+import com.project.back_end.dto.CursorPageDTO;
+import com.project.back_end.dto.JobStatusDTO;
 import com.project.back_end.dto.LoginDTO;
+import com.project.back_end.dto.RecallPatientDTO;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -29,6 +39,15 @@ public class PatientController {
     @Autowired
     private TokenService tokenService;
     
+    @Autowired
+    private PatientCohortIndex patientCohortIndex;
+    
+    @Autowired
+    private PatientVisitSummaryService visitSummaryService;
+    
+    @Autowired
+    private PatientHistoryService patientHistoryService;
+    
     @PostMapping("/register")
     public ResponseEntity<?> registerPatient(@Valid @RequestBody Patient patient) {
         try {
@@ -76,6 +95,43 @@ public class PatientController {
         }
     }
     
+    /**
+     * Merged appointment and prescription timeline, streamed as NDJSON
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getPatientHistory(
+            @PathVariable Long id,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            Long userId = tokenService.getUserIdFromToken(actualToken);
+            boolean allowed = "ADMIN".equals(role)
+                    || ("PATIENT".equals(role) && id.equals(userId))
+                    || ("DOCTOR".equals(role) && userId != null
+                        && appointmentService.isTreatingDoctor(userId, id));
+            if (!allowed) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Access denied"));
+            }
+            
+            StreamingResponseBody body = out -> patientHistoryService.writeHistory(id, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .body(body);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping
     public ResponseEntity<?> getAllPatients(@RequestHeader("Authorization") String token) {
         try {
@@ -100,6 +156,154 @@ public class PatientController {
         }
     }
     
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPatients(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token and check staff role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role) && !"DOCTOR".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only staff can search patients"));
+            }
+            
+            List<Patient> patients = patientService.searchPatients(query, limit);
+            return ResponseEntity.ok(patients);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/cohort")
+    public ResponseEntity<?> queryCohort(
+            @Valid @RequestBody CohortQueryDTO query,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can query patient cohorts"));
+            }
+            
+            CohortResultDTO result = patientCohortIndex.query(query);
+            return ResponseEntity.ok(result);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/recall")
+    public ResponseEntity<?> getPatientsDueForRecall(
+            @RequestParam(defaultValue = "12") int months,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can view recall lists"));
+            }
+            
+            CursorPageDTO<RecallPatientDTO> patients = patientService.getPatientsDueForRecall(months, cursor, limit);
+            return ResponseEntity.ok(patients);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Start the visit summary backfill in the background; poll GET on the same path for its status
+     */
+    @PostMapping("/visit-summary/backfill")
+    public ResponseEntity<?> backfillVisitSummaries(@RequestHeader("Authorization") String token) {
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can run the visit summary backfill"));
+            }
+            
+            JobStatusDTO status = visitSummaryService.startBackfill();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/visit-summary/backfill")
+    public ResponseEntity<?> getVisitSummaryBackfillStatus(@RequestHeader("Authorization") String token) {
+        try {
+            // Validate token and check admin role
+            String actualToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(actualToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid token"));
+            }
+            
+            String role = tokenService.getRoleFromToken(actualToken);
+            if (!"ADMIN".equals(role)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Only admins can view the visit summary backfill"));
+            }
+            
+            JobStatusDTO status = visitSummaryService.backfillStatus();
+            if (status == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "The visit summary backfill has not run on this instance"));
+            }
+            return ResponseEntity.ok(status);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getPatientById(
             @PathVariable Long id,
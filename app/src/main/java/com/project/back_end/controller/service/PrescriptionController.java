@@ -1,7 +1,11 @@
 package com.project.back_end.controller;
 
+import com.project.back_end.dto.BulkPrescriptionResultDTO;
+import com.project.back_end.dto.CursorPageDTO;
 import com.project.back_end.dto.PrescriptionDTO;
+import com.project.back_end.dto.PrescriptionResultDTO;
 import com.project.back_end.dto.ApiResponseDTO;
+import com.project.back_end.model.PatientMedicationSummary;
 import com.project.back_end.model.Prescription;
 import com.project.back_end.service.PrescriptionService;
 import com.project.back_end.service.TokenService;
@@ -25,10 +29,11 @@ public class PrescriptionController {
     private TokenService tokenService;
     
     /**
-     * Create a new prescription (Doctor only)
+     * Create a new prescription (Doctor only); the response carries any interaction
+     * and allergy warnings, which are advisory and never block the save
      */
     @PostMapping
-    public ResponseEntity<ApiResponseDTO<PrescriptionDTO>> createPrescription(
+    public ResponseEntity<ApiResponseDTO<PrescriptionResultDTO>> createPrescription(
             @RequestHeader("Authorization") String token,
             @Valid @RequestBody PrescriptionDTO prescriptionDTO) {
         try {
@@ -51,27 +56,115 @@ public class PrescriptionController {
             prescriptionDTO.setDoctorEmail(doctorEmail);
             
             // Create prescription
-            ApiResponseDTO<PrescriptionDTO> response = prescriptionService.createPrescription(prescriptionDTO);
+            PrescriptionResultDTO result = prescriptionService.createPrescription(prescriptionDTO);
+            String message = result.getWarnings().isEmpty()
+                ? "Prescription created successfully"
+                : "Prescription created with " + result.getWarnings().size() + " warning(s)";
+            return ResponseEntity.status(HttpStatus.CREATED).body(
+                new ApiResponseDTO<>(true, message, result)
+            );
             
-            if (response.isSuccess()) {
-                return ResponseEntity.status(HttpStatus.CREATED).body(response);
-            } else {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDTO<>(false, "Error creating prescription: " + e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Create up to 100 prescriptions in one request (Doctor only), e.g. at the end of a clinic session
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponseDTO<List<BulkPrescriptionResultDTO>>> createPrescriptions(
+            @RequestHeader("Authorization") String token,
+            @RequestBody List<PrescriptionDTO> prescriptionDTOs) {
+        try {
+            // Validate token
+            String jwtToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(jwtToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponseDTO<>(false, "Invalid or expired token", null));
+            }
+            
+            // Check if user is a doctor
+            String userRole = tokenService.getRoleFromToken(jwtToken);
+            if (!"DOCTOR".equals(userRole)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponseDTO<>(false, "Only doctors can create prescriptions", null));
             }
             
+            // Every item is written as the signed-in doctor's, as single create does with the email
+            Long doctorId = tokenService.getUserIdFromToken(jwtToken);
+            if (doctorId == null) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponseDTO<>(false, "Token does not identify a doctor", null));
+            }
+            
+            if (prescriptionDTOs.size() > PrescriptionService.MAX_BULK_SIZE) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ApiResponseDTO<>(false, "A bulk request cannot contain more than "
+                        + PrescriptionService.MAX_BULK_SIZE + " prescriptions", null));
+            }
+            
+            // Items are validated individually; invalid ones are reported without failing the batch
+            List<BulkPrescriptionResultDTO> results = prescriptionService.createPrescriptions(doctorId, prescriptionDTOs);
+            long created = results.stream().filter(BulkPrescriptionResultDTO::isSuccess).count();
+            return ResponseEntity.status(created > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST).body(
+                new ApiResponseDTO<>(created > 0, created + " of " + results.size() + " prescriptions created", results)
+            );
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponseDTO<>(false, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new ApiResponseDTO<>(false, "Error creating prescription: " + e.getMessage(), null));
+                .body(new ApiResponseDTO<>(false, "Error creating prescriptions: " + e.getMessage(), null));
         }
     }
     
     /**
-     * Get all prescriptions for a patient
+     * Get a page of all prescriptions, newest first (Admin only)
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponseDTO<CursorPageDTO<Prescription>>> getAllPrescriptions(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            // Validate token
+            String jwtToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(jwtToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponseDTO<>(false, "Invalid or expired token", null));
+            }
+            
+            if (!"ADMIN".equals(tokenService.getRoleFromToken(jwtToken))) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponseDTO<>(false, "Access denied", null));
+            }
+            
+            CursorPageDTO<Prescription> prescriptions = prescriptionService.getAllPrescriptions(cursor, limit);
+            return ResponseEntity.ok(
+                new ApiResponseDTO<>(true, "Prescriptions retrieved successfully", prescriptions)
+            );
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponseDTO<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDTO<>(false, "Error retrieving prescriptions: " + e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Get a page of a patient's prescriptions, newest first; pass nextCursor back for the next page
      */
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<ApiResponseDTO<List<PrescriptionDTO>>> getPrescriptionsForPatient(
+    public ResponseEntity<ApiResponseDTO<CursorPageDTO<Prescription>>> getPrescriptionsForPatient(
             @RequestHeader("Authorization") String token,
-            @PathVariable Long patientId) {
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
             // Validate token
             String jwtToken = token.replace("Bearer ", "");
@@ -92,11 +185,15 @@ public class PrescriptionController {
                 }
             }
             
-            List<PrescriptionDTO> prescriptions = prescriptionService.getPrescriptionsForPatient(patientId);
+            CursorPageDTO<Prescription> prescriptions = prescriptionService.getPrescriptionsByPatientId(
+                patientId, cursor, limit);
             return ResponseEntity.ok(
                 new ApiResponseDTO<>(true, "Prescriptions retrieved successfully", prescriptions)
             );
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponseDTO<>(false, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ApiResponseDTO<>(false, "Error retrieving prescriptions: " + e.getMessage(), null));
@@ -104,12 +201,49 @@ public class PrescriptionController {
     }
     
     /**
-     * Get all prescriptions by a doctor
+     * Get a patient's current medications from the maintained summary
+     */
+    @GetMapping("/patient/{patientId}/medications")
+    public ResponseEntity<ApiResponseDTO<PatientMedicationSummary>> getMedicationSummaryForPatient(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long patientId) {
+        try {
+            // Validate token
+            String jwtToken = token.replace("Bearer ", "");
+            if (!tokenService.validateToken(jwtToken)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponseDTO<>(false, "Invalid or expired token", null));
+            }
+            
+            // Same access rules as the patient's prescription list
+            String userRole = tokenService.getRoleFromToken(jwtToken);
+            String userEmail = tokenService.getEmailFromToken(jwtToken);
+            
+            if ("PATIENT".equals(userRole) && !prescriptionService.isPatientOwner(patientId, userEmail)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponseDTO<>(false, "Access denied", null));
+            }
+            
+            PatientMedicationSummary summary = prescriptionService.getMedicationSummary(patientId);
+            return ResponseEntity.ok(
+                new ApiResponseDTO<>(true, "Medication summary retrieved successfully", summary)
+            );
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDTO<>(false, "Error retrieving medication summary: " + e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Get a page of a doctor's prescriptions, newest first
      */
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<ApiResponseDTO<List<PrescriptionDTO>>> getPrescriptionsByDoctor(
+    public ResponseEntity<ApiResponseDTO<CursorPageDTO<Prescription>>> getPrescriptionsByDoctor(
             @RequestHeader("Authorization") String token,
-            @PathVariable Long doctorId) {
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
             // Validate token
             String jwtToken = token.replace("Bearer ", "");
@@ -132,11 +266,15 @@ public class PrescriptionController {
                     .body(new ApiResponseDTO<>(false, "Access denied", null));
             }
             
-            List<PrescriptionDTO> prescriptions = prescriptionService.getPrescriptionsByDoctor(doctorId);
+            CursorPageDTO<Prescription> prescriptions = prescriptionService.getPrescriptionsByDoctorId(
+                doctorId, cursor, limit);
             return ResponseEntity.ok(
                 new ApiResponseDTO<>(true, "Prescriptions retrieved successfully", prescriptions)
             );
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponseDTO<>(false, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ApiResponseDTO<>(false, "Error retrieving prescriptions: " + e.getMessage(), null));
@@ -225,12 +363,14 @@ public class PrescriptionController {
     }
     
     /**
-     * Get prescriptions for an appointment
+     * Get a page of the prescriptions for an appointment, newest first
      */
     @GetMapping("/appointment/{appointmentId}")
-    public ResponseEntity<ApiResponseDTO<List<PrescriptionDTO>>> getPrescriptionsForAppointment(
+    public ResponseEntity<ApiResponseDTO<CursorPageDTO<Prescription>>> getPrescriptionsForAppointment(
             @RequestHeader("Authorization") String token,
-            @PathVariable Long appointmentId) {
+            @PathVariable Long appointmentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
             // Validate token
             String jwtToken = token.replace("Bearer ", "");
@@ -239,11 +379,15 @@ public class PrescriptionController {
                     .body(new ApiResponseDTO<>(false, "Invalid or expired token", null));
             }
             
-            List<PrescriptionDTO> prescriptions = prescriptionService.getPrescriptionsForAppointment(appointmentId);
+            CursorPageDTO<Prescription> prescriptions = prescriptionService.getPrescriptionsByAppointmentId(
+                appointmentId, cursor, limit);
             return ResponseEntity.ok(
                 new ApiResponseDTO<>(true, "Prescriptions retrieved successfully", prescriptions)
             );
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponseDTO<>(false, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ApiResponseDTO<>(false, "Error retrieving prescriptions: " + e.getMessage(), null));
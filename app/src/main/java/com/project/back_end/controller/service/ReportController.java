@@ -0,0 +1,140 @@
+package com.project.back_end.controller;
+
+import com.project.back_end.dto.DailyAppointmentReportDTO;
+import com.project.back_end.dto.DoctorUtilizationDTO;
+import com.project.back_end.dto.JobStatusDTO;
+import com.project.back_end.service.AppointmentReportService;
+import com.project.back_end.service.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+    
+    @Autowired
+    private AppointmentReportService reportService;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @GetMapping("/appointments/daily")
+    public ResponseEntity<?> getDailyAppointmentReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            ResponseEntity<?> denied = checkAdmin(token);
+            if (denied != null) {
+                return denied;
+            }
+            
+            List<DailyAppointmentReportDTO> report = reportService.getDailyReport(from, to);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/doctors/utilization")
+    public ResponseEntity<?> getDoctorUtilizationReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            ResponseEntity<?> denied = checkAdmin(token);
+            if (denied != null) {
+                return denied;
+            }
+            
+            List<DoctorUtilizationDTO> report = reportService.getDoctorUtilization(from, to);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Start recomputing the report rollup for a date range from appointment history in the
+     * background; poll GET on the same path for its status
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuildRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            ResponseEntity<?> denied = checkAdmin(token);
+            if (denied != null) {
+                return denied;
+            }
+            
+            JobStatusDTO status = reportService.startRebuild(from, to);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/rebuild")
+    public ResponseEntity<?> getRebuildStatus(@RequestHeader("Authorization") String token) {
+        try {
+            ResponseEntity<?> denied = checkAdmin(token);
+            if (denied != null) {
+                return denied;
+            }
+            
+            JobStatusDTO status = reportService.rebuildStatus();
+            if (status == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "The report rollup rebuild has not run on this instance"));
+            }
+            return ResponseEntity.ok(status);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    private ResponseEntity<?> checkAdmin(String token) {
+        // Validate token and check admin role
+        String actualToken = token.replace("Bearer ", "");
+        if (!tokenService.validateToken(actualToken)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid token"));
+        }
+        
+        String role = tokenService.getRoleFromToken(actualToken);
+        if (!"ADMIN".equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can view reports"));
+        }
+        return null;
+    }
+}
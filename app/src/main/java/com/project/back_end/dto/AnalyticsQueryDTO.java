@@ -0,0 +1,37 @@
+package com.project.back_end.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Group-by query over the appointment analytics snapshot. Null filters match everything;
+ * the date range is inclusive and defaults to the whole snapshot.
+ */
+@Data
+public class AnalyticsQueryDTO {
+    
+    public enum GroupBy {
+        HOUR_OF_DAY,
+        DAY_OF_WEEK,
+        DAY,
+        MONTH,
+        SPECIALTY,
+        DOCTOR,
+        STATUS
+    }
+    
+    @NotNull(message = "Group by is required")
+    private GroupBy groupBy;
+    
+    private LocalDate from;
+    
+    private LocalDate to;
+    
+    private Long doctorId;
+    
+    private String specialty;
+    
+    private String status;
+}
@@ -0,0 +1,43 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsResultDTO {
+    
+    private String groupBy;
+    
+    private List<Bucket> buckets;
+    
+    private long rowsScanned;
+    
+    // When the snapshot was taken; results do not include later changes
+    private LocalDateTime snapshotBuiltAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        
+        private String key;
+        
+        private long total;
+        
+        private long scheduled;
+        
+        private long completed;
+        
+        private long cancelled;
+        
+        private long noShow;
+        
+        private double cancellationRate;
+    }
+}
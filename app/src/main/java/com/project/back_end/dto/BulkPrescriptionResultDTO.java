@@ -0,0 +1,26 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of one item in a bulk prescription request, in request order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPrescriptionResultDTO {
+    
+    private int index;
+    
+    private boolean success;
+    
+    private String prescriptionId;
+    
+    private String error;
+    
+    private List<InteractionWarningDTO> warnings;
+}
@@ -0,0 +1,34 @@
+package com.project.back_end.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Patient cohort filter. Values within a field are OR-ed, fields are AND-ed;
+ * empty or null fields do not filter.
+ */
+@Data
+public class CohortQueryDTO {
+    
+    private List<String> bloodGroups;
+    
+    private List<String> genders;
+    
+    @Min(value = 0, message = "Minimum age cannot be negative")
+    private Integer minAge;
+    
+    @Max(value = 150, message = "Maximum age cannot exceed 150")
+    private Integer maxAge;
+    
+    private List<String> allergies;
+    
+    @Min(value = 0, message = "Page cannot be negative")
+    private int page = 0;
+    
+    @Min(value = 0, message = "Size cannot be negative")
+    @Max(value = 1000, message = "Size cannot exceed 1000")
+    private int size = 100;
+}
@@ -0,0 +1,21 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CohortResultDTO {
+    
+    private long count;
+    
+    private int page;
+    
+    private int size;
+    
+    private List<Long> patientIds;
+}
@@ -0,0 +1,21 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paged list. Pass nextCursor back to get the following page;
+ * it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    
+    private List<T> items;
+    
+    private String nextCursor;
+}
@@ -0,0 +1,28 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Appointment counts by status for one day across all doctors
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyAppointmentReportDTO {
+    
+    private LocalDate day;
+    
+    private long scheduled;
+    
+    private long completed;
+    
+    private long cancelled;
+    
+    private long noShow;
+    
+    private long total;
+}
@@ -0,0 +1,21 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of deactivating a doctor. The doctor is inactive either way; when
+ * cancellationPending is set, their upcoming appointments are cancelled by the retry job.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorDeactivationDTO {
+    
+    private Long doctorId;
+    
+    private int cancelledAppointments;
+    
+    private boolean cancellationPending;
+}
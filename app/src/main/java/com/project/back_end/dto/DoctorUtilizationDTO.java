@@ -0,0 +1,35 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A doctor's appointment counts over a date range, with booked against offered minutes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorUtilizationDTO {
+    
+    private Long doctorId;
+    
+    private String doctorName;
+    
+    private String specialty;
+    
+    private long scheduled;
+    
+    private long completed;
+    
+    private long cancelled;
+    
+    private long noShow;
+    
+    private long bookedMinutes;
+    
+    private long offeredMinutes;
+    
+    // bookedMinutes / offeredMinutes, or null when nothing was offered
+    private Double utilization;
+}
@@ -0,0 +1,32 @@
+package com.project.back_end.dto;
+
+import com.project.back_end.model.Prescription;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of the patient history timeline: an appointment with the prescriptions
+ * written for it, or a prescription not linked to any returned appointment.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryEntryDTO {
+    
+    public enum Type {
+        APPOINTMENT,
+        PRESCRIPTION
+    }
+    
+    private Type type;
+    
+    private LocalDateTime time;
+    
+    private AppointmentDTO appointment;
+    
+    private List<Prescription> prescriptions;
+}
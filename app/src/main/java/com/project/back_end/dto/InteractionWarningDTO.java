@@ -0,0 +1,30 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A drug-drug interaction or allergy conflict found while writing a prescription.
+ * Warnings are advisory; the prescription is still saved.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionWarningDTO {
+    
+    public enum Type {
+        INTERACTION,
+        ALLERGY
+    }
+    
+    private Type type;
+    
+    private String severity;
+    
+    private List<String> medications;
+    
+    private String message;
+}
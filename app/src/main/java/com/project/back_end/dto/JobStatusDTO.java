@@ -0,0 +1,36 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * State of the latest run of a maintenance job on this instance. result is set once the
+ * job has succeeded, error once it has failed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStatusDTO {
+    
+    public enum State {
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+    
+    private String job;
+    
+    private State state;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime finishedAt;
+    
+    private Map<String, Object> result;
+    
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.project.back_end.dto;
+
+import com.project.back_end.model.Prescription;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrescriptionResultDTO {
+    
+    private Prescription prescription;
+    
+    private List<InteractionWarningDTO> warnings;
+}
@@ -0,0 +1,27 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the recall list: how to reach the patient and when they were last seen
+ * (null if never).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecallPatientDTO {
+    
+    private Long patientId;
+    
+    private String name;
+    
+    private String email;
+    
+    private String phone;
+    
+    private LocalDateTime lastVisitAt;
+}
@@ -0,0 +1,16 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpecialtyDemandDTO {
+    
+    private String specialty;
+    
+    // Count-Min estimate: never below the true count
+    private long estimatedSearches;
+}
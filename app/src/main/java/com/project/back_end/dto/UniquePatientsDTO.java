@@ -0,0 +1,27 @@
+package com.project.back_end.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Estimated distinct patients booked with a doctor, per month and for the whole range.
+ * The range total is the union, so a patient seen in several months counts once.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniquePatientsDTO {
+    
+    private Long doctorId;
+    
+    private String from;
+    
+    private String to;
+    
+    private Map<String, Long> byMonth;
+    
+    private long total;
+}
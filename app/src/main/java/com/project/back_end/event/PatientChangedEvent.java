@@ -0,0 +1,41 @@
+package com.project.back_end.event;
+
+import com.project.back_end.model.Patient;
+
+/**
+ * Published by PatientService after a patient is created, updated or deleted so
+ * in-memory indexes can stay current without PatientService knowing about them.
+ */
+public class PatientChangedEvent {
+    
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+    
+    private final ChangeType changeType;
+    private final Long patientId;
+    private final Patient patient;
+    
+    public PatientChangedEvent(ChangeType changeType, Long patientId, Patient patient) {
+        this.changeType = changeType;
+        this.patientId = patientId;
+        this.patient = patient;
+    }
+    
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+    
+    public Long getPatientId() {
+        return patientId;
+    }
+    
+    /**
+     * The saved patient, or null for deletions
+     */
+    public Patient getPatient() {
+        return patient;
+    }
+}
@@ -6,7 +6,8 @@ import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointment")
+@Table(name = "appointment",
+       indexes = @Index(name = "idx_appointment_status_time", columnList = "status, appointment_time"))
 public class Appointment {
     
     @Id
@@ -0,0 +1,150 @@
+package com.project.back_end.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending appointment change, written in the same transaction as the appointment
+ * itself and delivered to subscribers afterwards by OutboxRelay. Rows are kept with
+ * published_at set until the retention sweep removes them.
+ */
+@Entity
+@Table(name = "appointment_outbox",
+       indexes = {
+           @Index(name = "idx_outbox_unpublished", columnList = "published_at, id"),
+           @Index(name = "idx_outbox_doctor", columnList = "doctor_id, id")
+       })
+public class AppointmentOutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "event_type", nullable = false, length = 40)
+    private String eventType;
+    
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+    
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+    
+    @Column(name = "patient_id")
+    private Long patientId;
+    
+    @Column(name = "appointment_time")
+    private LocalDateTime appointmentTime;
+    
+    @Column(name = "status", length = 20)
+    private String status;
+    
+    // Optional JSON for events that cover more than one appointment
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+    
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    
+    // Default constructor
+    public AppointmentOutboxEvent() {
+    }
+    
+    public AppointmentOutboxEvent(String eventType, Long doctorId) {
+        this.eventType = eventType;
+        this.doctorId = doctorId;
+    }
+    
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+    
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+    
+    public Long getDoctorId() {
+        return doctorId;
+    }
+    
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+    
+    public Long getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+    
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+    
+    public void setAppointmentTime(LocalDateTime appointmentTime) {
+        this.appointmentTime = appointmentTime;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+    
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
@@ -0,0 +1,109 @@
+package com.project.back_end.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished appointment (completed, cancelled or no-show) moved out of the hot
+ * appointment table by AppointmentArchiveService. Same columns and ids as Appointment,
+ * plus when it was archived; rows are copied with INSERT ... SELECT and never updated.
+ */
+@Entity
+@Immutable
+@Table(name = "appointment_archive",
+       indexes = {
+           @Index(name = "idx_archive_doctor_time", columnList = "doctor_id, appointment_time"),
+           @Index(name = "idx_archive_patient_time", columnList = "patient_id, appointment_time")
+       })
+public class ArchivedAppointment {
+    
+    @Id
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private Doctor doctor;
+    
+    @Column(name = "appointment_time", nullable = false)
+    private LocalDateTime appointmentTime;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private Appointment.AppointmentStatus status;
+    
+    @Column(name = "reason", columnDefinition = "TEXT")
+    private String reason;
+    
+    @Column(name = "notes", columnDefinition = "TEXT")
+    private String notes;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    // Default constructor
+    public ArchivedAppointment() {
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Patient getPatient() {
+        return patient;
+    }
+    
+    public Doctor getDoctor() {
+        return doctor;
+    }
+    
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+    
+    public Appointment.AppointmentStatus getStatus() {
+        return status;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ArchivedAppointment{" +
+                "id=" + id +
+                ", appointmentTime=" + appointmentTime +
+                ", status=" + status +
+                ", archivedAt=" + archivedAt +
+                '}';
+    }
+}
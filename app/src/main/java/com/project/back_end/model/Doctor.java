@@ -4,13 +4,20 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "doctor")
+@Table(name = "doctor",
+       indexes = {
+           @Index(name = "idx_doctor_active_specialty", columnList = "is_active, specialty"),
+           @Index(name = "idx_doctor_active_deactivated", columnList = "is_active, deactivated_at")
+       })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctor")
 public class Doctor {
     
     @Id
@@ -57,6 +64,7 @@ public class Doctor {
     private BigDecimal consultationFee;
     
     @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctorAvailableTimes")
     @JsonIgnore
     private List<DoctorAvailableTime> availableTimes = new ArrayList<>();
     
@@ -64,6 +72,13 @@ public class Doctor {
     @JsonIgnore
     private List<Appointment> appointments = new ArrayList<>();
     
+    // Inactive doctors keep their history but are hidden from listings, search and booking
+    @Column(name = "is_active", nullable = false, columnDefinition = "BOOLEAN DEFAULT TRUE")
+    private Boolean isActive = true;
+    
+    @Column(name = "deactivated_at")
+    private LocalDateTime deactivatedAt;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -199,6 +214,22 @@ public class Doctor {
         this.updatedAt = updatedAt;
     }
     
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    public LocalDateTime getDeactivatedAt() {
+        return deactivatedAt;
+    }
+    
+    public void setDeactivatedAt(LocalDateTime deactivatedAt) {
+        this.deactivatedAt = deactivatedAt;
+    }
+    
     // Helper methods
     public void addAvailableTime(DoctorAvailableTime availableTime) {
         availableTimes.add(availableTime);
@@ -0,0 +1,136 @@
+package com.project.back_end.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "doctor_available_times",
+       uniqueConstraints = @UniqueConstraint(name = "unique_doctor_day_time",
+                                             columnNames = {"doctor_id", "day_of_week", "start_time"}))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctorAvailableTime")
+public class DoctorAvailableTime {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    @JsonIgnore
+    private Doctor doctor;
+    
+    @NotNull(message = "Day of week is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false, length = 10)
+    private DayOfWeek dayOfWeek;
+    
+    @NotNull(message = "Start time is required")
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+    
+    @NotNull(message = "End time is required")
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+    
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+    
+    // Default constructor
+    public DoctorAvailableTime() {
+    }
+    
+    // Constructor with essential fields
+    public DoctorAvailableTime(Doctor doctor, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this.doctor = doctor;
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+    
+    // Helper method to get the length of this availability window in minutes
+    public long getDurationMinutes() {
+        return startTime != null && endTime != null
+                ? Duration.between(startTime, endTime).toMinutes() : 0;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Doctor getDoctor() {
+        return doctor;
+    }
+    
+    public void setDoctor(Doctor doctor) {
+        this.doctor = doctor;
+    }
+    
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+    
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+    
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+    
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+    
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+    
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    @Override
+    public String toString() {
+        return "DoctorAvailableTime{" +
+                "id=" + id +
+                ", dayOfWeek=" + dayOfWeek +
+                ", startTime=" + startTime +
+                ", endTime=" + endTime +
+                ", isActive=" + isActive +
+                ", doctorId=" + (doctor != null ? doctor.getId() : null) +
+                '}';
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DoctorAvailableTime)) return false;
+        DoctorAvailableTime that = (DoctorAvailableTime) o;
+        return id != null && id.equals(that.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
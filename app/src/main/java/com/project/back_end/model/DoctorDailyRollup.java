@@ -0,0 +1,124 @@
+package com.project.back_end.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Appointment counts by status and offered minutes for one doctor on one day.
+ * Written only through native upserts in DoctorDailyRollupRepository, in the same
+ * transaction as the appointment change, so reports never scan the appointment table.
+ */
+@Entity
+@Table(name = "doctor_daily_rollup",
+       indexes = @Index(name = "idx_rollup_day", columnList = "day"))
+@IdClass(DoctorDailyRollup.Key.class)
+public class DoctorDailyRollup {
+    
+    @Id
+    @Column(name = "doctor_id")
+    private Long doctorId;
+    
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+    
+    @Column(name = "scheduled_count", nullable = false)
+    private int scheduledCount;
+    
+    @Column(name = "completed_count", nullable = false)
+    private int completedCount;
+    
+    @Column(name = "cancelled_count", nullable = false)
+    private int cancelledCount;
+    
+    @Column(name = "no_show_count", nullable = false)
+    private int noShowCount;
+    
+    // Sum of the doctor's active availability windows for that weekday
+    @Column(name = "offered_minutes", nullable = false)
+    private int offeredMinutes;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public DoctorDailyRollup() {
+    }
+    
+    // Getters and Setters
+    public Long getDoctorId() {
+        return doctorId;
+    }
+    
+    public LocalDate getDay() {
+        return day;
+    }
+    
+    public int getScheduledCount() {
+        return scheduledCount;
+    }
+    
+    public int getCompletedCount() {
+        return completedCount;
+    }
+    
+    public int getCancelledCount() {
+        return cancelledCount;
+    }
+    
+    public int getNoShowCount() {
+        return noShowCount;
+    }
+    
+    public int getOfferedMinutes() {
+        return offeredMinutes;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "DoctorDailyRollup{" +
+                "doctorId=" + doctorId +
+                ", day=" + day +
+                ", scheduled=" + scheduledCount +
+                ", completed=" + completedCount +
+                ", cancelled=" + cancelledCount +
+                ", noShow=" + noShowCount +
+                ", offeredMinutes=" + offeredMinutes +
+                '}';
+    }
+    
+    public static class Key implements Serializable {
+        
+        private Long doctorId;
+        private LocalDate day;
+        
+        public Key() {
+        }
+        
+        public Key(Long doctorId, LocalDate day) {
+            this.doctorId = doctorId;
+            this.day = day;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(doctorId, key.doctorId) && Objects.equals(day, key.day);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, day);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.project.back_end.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-patient read model over the prescriptions collection: the medications on
+ * currently active prescriptions plus the most recent prescription. Keyed by patient
+ * ID so the current medication list is a single document read.
+ */
+@Document(collection = "patient_medication_summary")
+public class PatientMedicationSummary {
+    
+    @Id
+    private Long patientId;
+    
+    private List<ActiveMedication> activeMedications = new ArrayList<>();
+    
+    private String lastPrescriptionId;
+    
+    private LocalDateTime lastPrescribedAt;
+    
+    private Long lastPrescribingDoctorId;
+    
+    private String lastPrescribingDoctorName;
+    
+    private LocalDateTime updatedAt;
+    
+    /**
+     * One medication line from an active prescription
+     */
+    public static class ActiveMedication {
+        
+        private String prescriptionId;
+        private String name;
+        private String dosage;
+        private String frequency;
+        private Long doctorId;
+        private String doctorName;
+        private LocalDateTime prescribedAt;
+        
+        public ActiveMedication() {
+        }
+        
+        public ActiveMedication(Prescription prescription, Prescription.Medication medication) {
+            this.prescriptionId = prescription.getId();
+            this.name = medication.getName();
+            this.dosage = medication.getDosage();
+            this.frequency = medication.getFrequency();
+            this.doctorId = prescription.getDoctorId();
+            this.doctorName = prescription.getDoctorName();
+            this.prescribedAt = prescription.getPrescriptionDate();
+        }
+        
+        public String getPrescriptionId() {
+            return prescriptionId;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getDosage() {
+            return dosage;
+        }
+        
+        public String getFrequency() {
+            return frequency;
+        }
+        
+        public Long getDoctorId() {
+            return doctorId;
+        }
+        
+        public String getDoctorName() {
+            return doctorName;
+        }
+        
+        public LocalDateTime getPrescribedAt() {
+            return prescribedAt;
+        }
+    }
+    
+    // Default constructor
+    public PatientMedicationSummary() {
+    }
+    
+    public PatientMedicationSummary(Long patientId) {
+        this.patientId = patientId;
+    }
+    
+    // Getters and Setters
+    public Long getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+    
+    public List<ActiveMedication> getActiveMedications() {
+        return activeMedications;
+    }
+    
+    public void setActiveMedications(List<ActiveMedication> activeMedications) {
+        this.activeMedications = activeMedications;
+    }
+    
+    public String getLastPrescriptionId() {
+        return lastPrescriptionId;
+    }
+    
+    public void setLastPrescriptionId(String lastPrescriptionId) {
+        this.lastPrescriptionId = lastPrescriptionId;
+    }
+    
+    public LocalDateTime getLastPrescribedAt() {
+        return lastPrescribedAt;
+    }
+    
+    public void setLastPrescribedAt(LocalDateTime lastPrescribedAt) {
+        this.lastPrescribedAt = lastPrescribedAt;
+    }
+    
+    public Long getLastPrescribingDoctorId() {
+        return lastPrescribingDoctorId;
+    }
+    
+    public void setLastPrescribingDoctorId(Long lastPrescribingDoctorId) {
+        this.lastPrescribingDoctorId = lastPrescribingDoctorId;
+    }
+    
+    public String getLastPrescribingDoctorName() {
+        return lastPrescribingDoctorName;
+    }
+    
+    public void setLastPrescribingDoctorName(String lastPrescribingDoctorName) {
+        this.lastPrescribingDoctorName = lastPrescribingDoctorName;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
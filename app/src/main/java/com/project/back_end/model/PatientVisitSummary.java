@@ -0,0 +1,85 @@
+package com.project.back_end.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per patient with the last completed and next scheduled visit, maintained
+ * by AppointmentService so recall lists are an index range scan on last_visit_at
+ * instead of an anti-join over the appointment table.
+ */
+@Entity
+@Table(name = "patient_visit_summary",
+       indexes = {
+           @Index(name = "idx_visit_summary_last_visit", columnList = "last_visit_at"),
+           @Index(name = "idx_visit_summary_next_visit", columnList = "next_visit_at")
+       })
+public class PatientVisitSummary {
+    
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+    
+    @Column(name = "last_visit_at")
+    private LocalDateTime lastVisitAt;
+    
+    @Column(name = "next_visit_at")
+    private LocalDateTime nextVisitAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public PatientVisitSummary() {
+    }
+    
+    public PatientVisitSummary(Long patientId) {
+        this.patientId = patientId;
+    }
+    
+    // Lifecycle methods
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+    
+    public LocalDateTime getLastVisitAt() {
+        return lastVisitAt;
+    }
+    
+    public void setLastVisitAt(LocalDateTime lastVisitAt) {
+        this.lastVisitAt = lastVisitAt;
+    }
+    
+    public LocalDateTime getNextVisitAt() {
+        return nextVisitAt;
+    }
+    
+    public void setNextVisitAt(LocalDateTime nextVisitAt) {
+        this.nextVisitAt = nextVisitAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "PatientVisitSummary{" +
+                "patientId=" + patientId +
+                ", lastVisitAt=" + lastVisitAt +
+                ", nextVisitAt=" + nextVisitAt +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.project.back_end.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress marker for a background job, so it can resume where it stopped after a restart
+ */
+@Entity
+@Table(name = "scheduler_watermark")
+public class SchedulerWatermark {
+    
+    @Id
+    @Column(name = "name", length = 60)
+    private String name;
+    
+    @Column(name = "watermark", nullable = false)
+    private LocalDateTime watermark;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public SchedulerWatermark() {
+    }
+    
+    public SchedulerWatermark(String name, LocalDateTime watermark) {
+        this.name = name;
+        this.watermark = watermark;
+    }
+    
+    // Lifecycle methods
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+    
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+    
+    public void setWatermark(LocalDateTime watermark) {
+        this.watermark = watermark;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,130 @@
+package com.project.back_end.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Audit trail entry in the system_logs collection (see schema-design.md). The
+ * timestamp is stored as a BSON date so the TTL index can expire old entries.
+ */
+@Document(collection = "system_logs")
+public class SystemLog {
+    
+    @Id
+    private String id;
+    
+    private Instant timestamp;
+    
+    private String level;
+    
+    private String action;
+    
+    private Long userId;
+    
+    private String userType;
+    
+    private Map<String, Object> details;
+    
+    private String ipAddress;
+    
+    private String userAgent;
+    
+    private String sessionId;
+    
+    // Default constructor
+    public SystemLog() {
+    }
+    
+    public SystemLog(String action, Long userId, String userType, Map<String, Object> details) {
+        this.timestamp = Instant.now();
+        this.level = "INFO";
+        this.action = action;
+        this.userId = userId;
+        this.userType = userType;
+        this.details = details;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public String getLevel() {
+        return level;
+    }
+    
+    public void setLevel(String level) {
+        this.level = level;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public void setAction(String action) {
+        this.action = action;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getUserType() {
+        return userType;
+    }
+    
+    public void setUserType(String userType) {
+        this.userType = userType;
+    }
+    
+    public Map<String, Object> getDetails() {
+        return details;
+    }
+    
+    public void setDetails(Map<String, Object> details) {
+        this.details = details;
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+    
+    public String getUserAgent() {
+        return userAgent;
+    }
+    
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+    
+    public String getSessionId() {
+        return sessionId;
+    }
+    
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+}
@@ -0,0 +1,92 @@
+package com.project.back_end.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for booking and scheduling operations.
+ * When no recording is running JFR leaves begin/end/commit uninstrumented and the
+ * statement counter is not read, so an event costs an allocation the JIT can elide.
+ */
+public final class ClinicEvents {
+    
+    private ClinicEvents() {
+    }
+    
+    @Category({"Clinic", "Scheduling"})
+    @StackTrace(false)
+    public abstract static class ClinicEvent extends Event {
+        
+        @Label("Doctor ID")
+        @Description("Doctor the operation was for, 0 when not applicable")
+        long doctorId;
+        
+        @Label("Slot Count")
+        @Description("Appointment slots booked, cancelled or generated; medications for prescriptions")
+        int slotCount;
+        
+        @Label("Query Count")
+        @Description("SQL statements issued on this thread during the operation")
+        long queryCount;
+        
+        @Label("Success")
+        boolean success;
+        
+        private transient long queriesBefore;
+        
+        /**
+         * Start timing the operation
+         */
+        public void start() {
+            if (isEnabled()) {
+                queriesBefore = SqlStatementRecorder.threadStatementCount();
+            }
+            begin();
+        }
+        
+        /**
+         * Stop timing and commit if the recording wants this event
+         */
+        public void finish(Long doctorId, int slotCount, boolean success) {
+            end();
+            if (shouldCommit()) {
+                this.doctorId = doctorId != null ? doctorId : 0;
+                this.slotCount = slotCount;
+                this.success = success;
+                this.queryCount = SqlStatementRecorder.threadStatementCount() - queriesBefore;
+                commit();
+            }
+        }
+    }
+    
+    @Name("clinic.AppointmentBooking")
+    @Label("Appointment Booking")
+    public static class AppointmentBooking extends ClinicEvent {
+    }
+    
+    @Name("clinic.AppointmentCancellation")
+    @Label("Appointment Cancellation")
+    public static class AppointmentCancellation extends ClinicEvent {
+    }
+    
+    @Name("clinic.SlotGeneration")
+    @Label("Slot Generation")
+    public static class SlotGeneration extends ClinicEvent {
+    }
+    
+    @Name("clinic.TokenVerification")
+    @Label("Token Verification")
+    @Category({"Clinic", "Security"})
+    public static class TokenVerification extends ClinicEvent {
+    }
+    
+    @Name("clinic.PrescriptionWrite")
+    @Label("Prescription Write")
+    @Category({"Clinic", "Prescriptions"})
+    public static class PrescriptionWrite extends ClinicEvent {
+    }
+}
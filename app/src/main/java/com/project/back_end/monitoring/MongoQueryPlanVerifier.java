@@ -0,0 +1,115 @@
+package com.project.back_end.monitoring;
+
+import com.project.back_end.model.Prescription;
+import com.project.back_end.service.PrescriptionQueries;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs explain on every paged prescription query shape at startup and refuses to
+ * start if any of them would scan the whole collection. Enable it in CI and staging
+ * with clinic.diagnostics.mongo.verify-query-plans=true.
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.diagnostics.mongo.verify-query-plans", havingValue = "true")
+public class MongoQueryPlanVerifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MongoQueryPlanVerifier.class);
+    
+    // Any well-formed cursor exercises the keyset predicate
+    private static final String SAMPLE_CURSOR = PrescriptionQueries.cursorAfter(samplePrescription());
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        Map<String, Query> shapes = queryShapes();
+        List<String> collectionScans = findCollectionScans(shapes);
+        if (!collectionScans.isEmpty()) {
+            throw new IllegalStateException("Prescription queries would scan the whole collection: " + collectionScans);
+        }
+        logger.info("Verified index use for {} prescription query shapes", shapes.size());
+    }
+    
+    /**
+     * Every query shape PrescriptionQueries produces, by name
+     */
+    static Map<String, Query> queryShapes() {
+        Map<String, Query> shapes = new LinkedHashMap<>();
+        shapes.put("byPatient", PrescriptionQueries.byPatient(1L, null, PrescriptionQueries.DEFAULT_PAGE_SIZE));
+        shapes.put("byPatient+cursor", PrescriptionQueries.byPatient(1L, SAMPLE_CURSOR, PrescriptionQueries.DEFAULT_PAGE_SIZE));
+        shapes.put("byDoctor", PrescriptionQueries.byDoctor(1L, null, PrescriptionQueries.DEFAULT_PAGE_SIZE));
+        shapes.put("byDoctor+cursor", PrescriptionQueries.byDoctor(1L, SAMPLE_CURSOR, PrescriptionQueries.DEFAULT_PAGE_SIZE));
+        shapes.put("byAppointment", PrescriptionQueries.byAppointment(1L, null, PrescriptionQueries.DEFAULT_PAGE_SIZE));
+        shapes.put("all", PrescriptionQueries.all(null, PrescriptionQueries.DEFAULT_PAGE_SIZE));
+        shapes.put("all+cursor", PrescriptionQueries.all(SAMPLE_CURSOR, PrescriptionQueries.DEFAULT_PAGE_SIZE));
+        return shapes;
+    }
+    
+    /**
+     * Names of the shapes whose winning plan contains a COLLSCAN stage
+     */
+    List<String> findCollectionScans(Map<String, Query> shapes) {
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+            .getRequiredPersistentEntity(Prescription.class);
+        List<String> collectionScans = new ArrayList<>();
+        for (Map.Entry<String, Query> shape : shapes.entrySet()) {
+            Query query = shape.getValue();
+            Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Prescription.class))
+                .find(mapper.getMappedObject(query.getQueryObject(), entity))
+                .sort(mapper.getMappedSort(query.getSortObject(), entity))
+                .limit(query.getLimit())
+                .explain();
+            Object winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan");
+            if (containsStage(winningPlan, "COLLSCAN")) {
+                collectionScans.add(shape.getKey());
+            }
+        }
+        return collectionScans;
+    }
+    
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Object value : document.values()) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        } else if (plan instanceof List<?> list) {
+            for (Object value : list) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static Prescription samplePrescription() {
+        Prescription prescription = new Prescription();
+        prescription.setId("000000000000000000000000");
+        prescription.setPrescriptionDate(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return prescription;
+    }
+}
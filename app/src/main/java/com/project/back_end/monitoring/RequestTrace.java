@@ -0,0 +1,161 @@
+package com.project.back_end.monitoring;
+
+/**
+ * Per-request phase timer. Phases nest (a repository call inside a service call),
+ * and each phase accumulates only its exclusive time so the breakdown adds up.
+ * Instances are confined to the request thread and never shared.
+ */
+public final class RequestTrace {
+    
+    public enum Phase {
+        JWT("jwt"),
+        MYSQL("mysql"),
+        MONGODB("mongodb"),
+        SERVICE("service"),
+        SERIALIZATION("serialization");
+        
+        private final String metricName;
+        
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+        
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+    
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+    private static final int MAX_DEPTH = 16;
+    private static final int NO_PHASE = -1;
+    
+    private final long startNanos;
+    private final boolean sampled;
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final int[] phaseCalls = new int[PHASES.length];
+    private final int[] stack = new int[MAX_DEPTH];
+    private int depth;
+    private int overflowDepth;
+    private int currentPhase = NO_PHASE;
+    private long markNanos;
+    
+    private RequestTrace(boolean sampled) {
+        this.startNanos = System.nanoTime();
+        this.sampled = sampled;
+        this.markNanos = startNanos;
+    }
+    
+    /**
+     * Start tracing the current thread's request
+     */
+    public static RequestTrace begin(boolean sampled) {
+        RequestTrace trace = new RequestTrace(sampled);
+        CURRENT.set(trace);
+        return trace;
+    }
+    
+    /**
+     * Trace for the current thread, or null when the thread is not serving a traced request
+     */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Stop tracing the current thread
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * Enter a phase, pausing the enclosing one
+     */
+    public void enter(Phase phase) {
+        if (depth == MAX_DEPTH) {
+            overflowDepth++;
+            return;
+        }
+        long now = System.nanoTime();
+        if (currentPhase != NO_PHASE) {
+            phaseNanos[currentPhase] += now - markNanos;
+        }
+        stack[depth++] = currentPhase;
+        currentPhase = phase.ordinal();
+        phaseCalls[currentPhase]++;
+        markNanos = now;
+    }
+    
+    /**
+     * Leave the current phase, resuming the enclosing one
+     */
+    public void exit() {
+        if (overflowDepth > 0) {
+            overflowDepth--;
+            return;
+        }
+        if (depth == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (currentPhase != NO_PHASE) {
+            phaseNanos[currentPhase] += now - markNanos;
+        }
+        currentPhase = stack[--depth];
+        markNanos = now;
+    }
+    
+    public boolean isSampled() {
+        return sampled;
+    }
+    
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+    
+    public int getPhaseCalls(Phase phase) {
+        return phaseCalls[phase.ordinal()];
+    }
+    
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    /**
+     * Render the breakdown as a Server-Timing header value. Time not spent in any
+     * traced phase (filters, controller code, MVC plumbing) is reported as "app".
+     */
+    public String toServerTiming(long totalNanos) {
+        StringBuilder header = new StringBuilder(160);
+        long traced = 0;
+        for (Phase phase : PHASES) {
+            int calls = phaseCalls[phase.ordinal()];
+            if (calls == 0) {
+                continue;
+            }
+            long nanos = phaseNanos[phase.ordinal()];
+            traced += nanos;
+            appendMetric(header, phase.getMetricName(), nanos);
+            header.append(";desc=\"").append(calls).append(calls == 1 ? " call\"" : " calls\"");
+        }
+        appendMetric(header, "app", Math.max(0, totalNanos - traced));
+        appendMetric(header, "total", totalNanos);
+        return header.toString();
+    }
+    
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(toMillis(nanos));
+    }
+    
+    static String toMillis(long nanos) {
+        // Two decimals without going through String.format on the request path
+        long hundredths = nanos / 10_000;
+        long whole = hundredths / 100;
+        long fraction = hundredths % 100;
+        return whole + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
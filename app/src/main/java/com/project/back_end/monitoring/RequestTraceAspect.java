@@ -0,0 +1,50 @@
+package com.project.back_end.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Attributes time spent in token checks, repositories and services to the current request trace.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "clinic.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTraceAspect {
+    
+    @Around("execution(public * com.project.back_end.service.TokenService.*(..))")
+    public Object traceTokenService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, RequestTrace.Phase.JWT);
+    }
+    
+    @Around("execution(* org.springframework.data.jpa.repository.JpaRepository+.*(..))")
+    public Object traceJpaRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, RequestTrace.Phase.MYSQL);
+    }
+    
+    @Around("execution(* org.springframework.data.mongodb.repository.MongoRepository+.*(..)) || " +
+            "execution(public * org.springframework.data.mongodb.core.MongoTemplate.*(..))")
+    public Object traceMongoRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, RequestTrace.Phase.MONGODB);
+    }
+    
+    @Around("execution(public * com.project.back_end.service..*(..)) && !within(com.project.back_end.service.TokenService)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, RequestTrace.Phase.SERVICE);
+    }
+    
+    private Object trace(ProceedingJoinPoint joinPoint, RequestTrace.Phase phase) throws Throwable {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+        trace.enter(phase);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            trace.exit();
+        }
+    }
+}
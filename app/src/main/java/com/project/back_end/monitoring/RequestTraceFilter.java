@@ -0,0 +1,162 @@
+package com.project.back_end.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Traces API requests and writes a structured log line with the phase breakdown for a
+ * sample of requests (and every slow one). Every traced response also carries the breakdown
+ * as a Server-Timing header (clinic.tracing.server-timing-enabled). Nothing is buffered: the
+ * header is added just before the response commits, so it covers the work up to the first
+ * byte of the body but not the writing of the body itself.
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTraceFilter extends OncePerRequestFilter {
+    
+    private static final Logger traceLogger = LoggerFactory.getLogger("clinic.trace");
+    
+    @Value("${clinic.tracing.sample-rate:0.01}")
+    private double sampleRate;
+    
+    @Value("${clinic.tracing.slow-request-threshold-ms:1000}")
+    private long slowRequestThresholdMs;
+    
+    @Value("${clinic.tracing.server-timing-enabled:true}")
+    private boolean serverTimingEnabled;
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    // Async streaming endpoints return before their body is written, so their timings would
+    // say nothing; they are left untraced (Ant-style patterns)
+    @Value("${clinic.tracing.excluded-paths:}")
+    private List<String> excludedPaths;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!path.startsWith("/api/")) {
+            return true;
+        }
+        for (String excluded : excludedPaths) {
+            if (!excluded.isEmpty() && PATH_MATCHER.match(excluded, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+        RequestTrace trace = RequestTrace.begin(sampled);
+        // Phase timing is cheap and kept for every request so slow ones can be logged
+        ServerTimingResponse timedResponse = serverTimingEnabled ? new ServerTimingResponse(response, trace) : null;
+        try {
+            filterChain.doFilter(request, timedResponse != null ? timedResponse : response);
+        } finally {
+            RequestTrace.clear();
+            long totalNanos = trace.getElapsedNanos();
+            if (timedResponse != null) {
+                // Responses without a body never touched the stream, so add the header now
+                timedResponse.addServerTiming();
+            }
+            if (sampled || totalNanos / 1_000_000 >= slowRequestThresholdMs) {
+                logTrace(request, response.getStatus(), trace, totalNanos);
+            }
+        }
+    }
+    
+    /**
+     * Adds the Server-Timing header once, as late as possible: when the body is first
+     * requested or the response is otherwise about to commit
+     */
+    private static class ServerTimingResponse extends HttpServletResponseWrapper {
+        
+        private final RequestTrace trace;
+        private boolean headerWritten;
+        
+        ServerTimingResponse(HttpServletResponse response, RequestTrace trace) {
+            super(response);
+            this.trace = trace;
+        }
+        
+        void addServerTiming() {
+            if (headerWritten || isCommitted()) {
+                return;
+            }
+            headerWritten = true;
+            setHeader("Server-Timing", trace.toServerTiming(trace.getElapsedNanos()));
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+        
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+        
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+    
+    private void logTrace(HttpServletRequest request, int status, RequestTrace trace, long totalNanos) {
+        StringBuilder line = new StringBuilder(256);
+        line.append("{\"method\":\"").append(request.getMethod())
+            .append("\",\"path\":\"").append(request.getRequestURI())
+            .append("\",\"status\":").append(status)
+            .append(",\"sampled\":").append(trace.isSampled())
+            .append(",\"totalMs\":").append(RequestTrace.toMillis(totalNanos));
+        for (RequestTrace.Phase phase : RequestTrace.Phase.values()) {
+            line.append(",\"").append(phase.getMetricName()).append("Ms\":")
+                .append(RequestTrace.toMillis(trace.getPhaseNanos(phase)))
+                .append(",\"").append(phase.getMetricName()).append("Calls\":")
+                .append(trace.getPhaseCalls(phase));
+        }
+        line.append('}');
+        traceLogger.info(line.toString());
+    }
+}
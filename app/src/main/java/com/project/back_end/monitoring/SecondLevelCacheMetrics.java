@@ -0,0 +1,61 @@
+package com.project.back_end.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes hit, miss and hit-ratio meters for every Hibernate second-level cache region.
+ */
+@Component
+public class SecondLevelCacheMetrics {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerRegionMeters() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getDomainDataRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+            FunctionCounter.builder("clinic.cache.l2.requests", regionStats, CacheRegionStatistics::getHitCount)
+                .description("Second-level cache lookups")
+                .tag("region", region)
+                .tag("result", "hit")
+                .register(meterRegistry);
+            FunctionCounter.builder("clinic.cache.l2.requests", regionStats, CacheRegionStatistics::getMissCount)
+                .description("Second-level cache lookups")
+                .tag("region", region)
+                .tag("result", "miss")
+                .register(meterRegistry);
+            Gauge.builder("clinic.cache.l2.hit.ratio", regionStats, SecondLevelCacheMetrics::hitRatio)
+                .description("Second-level cache hit ratio since startup")
+                .tag("region", region)
+                .register(meterRegistry);
+            Gauge.builder(ServiceMetrics.CACHE_SIZE_GAUGE_NAME, regionStats, CacheRegionStatistics::getElementCountInMemory)
+                .description("Entries held by an in-process cache or index")
+                .tag("cache", "l2." + region)
+                .register(meterRegistry);
+        }
+    }
+    
+    private static double hitRatio(CacheRegionStatistics regionStats) {
+        long hits = regionStats.getHitCount();
+        long lookups = hits + regionStats.getMissCount();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,79 @@
+package com.project.back_end.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shared meters for the service layer: call timers, error counters and cache gauges.
+ */
+@Component
+public class ServiceMetrics {
+    
+    public static final String TIMER_NAME = "clinic.service.calls";
+    public static final String ERROR_COUNTER_NAME = "clinic.service.errors";
+    public static final String CACHE_SIZE_GAUGE_NAME = "clinic.cache.size";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Meter lookups are cached so the hot path is a single map read
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<Method, Timer> failureTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the latency timer for a service method and outcome
+     */
+    public Timer timer(Method method, boolean success) {
+        if (success) {
+            return successTimers.computeIfAbsent(method, m -> buildTimer(m, "success"));
+        }
+        return failureTimers.computeIfAbsent(method, m -> buildTimer(m, "error"));
+    }
+    
+    /**
+     * Count a service error, including ones a service handles itself instead of propagating
+     */
+    public void recordError(Class<?> serviceClass, String methodName, Throwable cause) {
+        String service = serviceClass.getSimpleName();
+        String causeName = cause.getClass().getSimpleName();
+        String key = service + '#' + methodName + '#' + causeName;
+        errorCounters.computeIfAbsent(key, k -> Counter.builder(ERROR_COUNTER_NAME)
+                .description("Service layer errors by cause")
+                .tag("service", service)
+                .tag("method", methodName)
+                .tag("cause", causeName)
+                .register(meterRegistry))
+            .increment();
+    }
+    
+    /**
+     * Expose the size of an in-process cache or index as a gauge
+     */
+    public void registerCacheSize(String cacheName, Supplier<Number> size) {
+        Gauge.builder(CACHE_SIZE_GAUGE_NAME, size)
+            .description("Entries held by an in-process cache or index")
+            .tag("cache", cacheName)
+            .register(meterRegistry);
+    }
+    
+    private Timer buildTimer(Method method, String outcome) {
+        return Timer.builder(TIMER_NAME)
+            .description("Service layer call latency")
+            .tag("service", method.getDeclaringClass().getSimpleName())
+            .tag("method", method.getName())
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.back_end.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method in the service layer and counts propagated failures by cause.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Around("execution(public * com.project.back_end.service..*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            serviceMetrics.timer(method, true).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable t) {
+            serviceMetrics.timer(method, false).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            serviceMetrics.recordError(method.getDeclaringClass(), method.getName(), t);
+            throw t;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.back_end.monitoring;
+
+import org.hibernate.engine.spi.SessionEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-session Hibernate listener that logs statements slower than the configured
+ * threshold. The SQL comes from the statement recorder and is logged redacted;
+ * bind parameter values are never logged.
+ */
+public class SlowQuerySessionListener implements SessionEventListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger("clinic.sql.slow");
+    
+    // Hibernate instantiates one listener per session, so the threshold is set once at startup
+    private static volatile long slowQueryThresholdNanos = Long.MAX_VALUE;
+    
+    private long executeStartNanos;
+    
+    static void setSlowQueryThresholdMs(long thresholdMs) {
+        slowQueryThresholdNanos = thresholdMs > 0 ? thresholdMs * 1_000_000 : Long.MAX_VALUE;
+    }
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStartNanos = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        long elapsed = System.nanoTime() - executeStartNanos;
+        if (elapsed >= slowQueryThresholdNanos) {
+            logger.warn("Slow query ({} ms): {}", elapsed / 1_000_000, SqlStatementRecorder.lastStatementRedacted());
+        }
+    }
+}
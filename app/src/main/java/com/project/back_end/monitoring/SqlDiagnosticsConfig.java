@@ -0,0 +1,26 @@
+package com.project.back_end.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Installs the statement recorder and slow query listener into Hibernate.
+ */
+@Configuration
+public class SqlDiagnosticsConfig {
+    
+    @Value("${clinic.diagnostics.sql.slow-query-threshold-ms:500}")
+    private long slowQueryThresholdMs;
+    
+    @Bean
+    public HibernatePropertiesCustomizer sqlDiagnosticsHibernateCustomizer() {
+        SlowQuerySessionListener.setSlowQueryThresholdMs(slowQueryThresholdMs);
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementRecorder());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SlowQuerySessionListener.class.getName());
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.project.back_end.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Diagnostics mode: captures the SQL issued by each API request and flags endpoints
+ * that exceed the statement budget or repeat the same statement (the N+1 signature).
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.diagnostics.sql.enabled", havingValue = "true")
+public class SqlDiagnosticsFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger("clinic.sql.diagnostics");
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${clinic.diagnostics.sql.statement-budget:20}")
+    private int statementBudget;
+    
+    @Value("${clinic.diagnostics.sql.repeated-statement-threshold:5}")
+    private int repeatedStatementThreshold;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try (SqlStatementRecorder.Scope scope = SqlStatementRecorder.openScope()) {
+            filterChain.doFilter(request, response);
+            inspect(request, scope);
+        }
+    }
+    
+    private void inspect(HttpServletRequest request, SqlStatementRecorder.Scope scope) {
+        boolean overBudget = scope.getStatementCount() > statementBudget;
+        boolean repeated = scope.getMaxRepetitions() >= repeatedStatementThreshold;
+        if (!overBudget && !repeated) {
+            return;
+        }
+        String endpoint = request.getMethod() + " " + endpointPattern(request);
+        meterRegistry.counter("clinic.sql.budget.violations",
+            "endpoint", endpoint,
+            "reason", overBudget ? "statement_budget" : "repeated_statement").increment();
+        
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Integer> statement : scope.getStatements().entrySet()) {
+            if (statement.getValue() > 1 || overBudget) {
+                report.append("\n  ").append(statement.getValue()).append("x ").append(statement.getKey());
+            }
+        }
+        logger.warn("{} issued {} SQL statements (budget {}, max repetitions {}):{}",
+            endpoint, scope.getStatementCount(), statementBudget, scope.getMaxRepetitions(), report);
+    }
+    
+    private String endpointPattern(HttpServletRequest request) {
+        // Use the mapping pattern so path variables don't explode the metric tags
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+}
@@ -0,0 +1,122 @@
+package com.project.back_end.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate statement inspector that counts every SQL statement prepared on the
+ * current thread. Inside a capture scope it also keeps each distinct statement
+ * with its repetition count, which is how N+1 patterns show up.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+    
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    
+    private static final ThreadLocal<ThreadStats> THREAD_STATS = ThreadLocal.withInitial(ThreadStats::new);
+    
+    @Override
+    public String inspect(String sql) {
+        ThreadStats stats = THREAD_STATS.get();
+        stats.statementCount++;
+        stats.lastStatement = sql;
+        if (stats.scope != null) {
+            stats.scope.record(sql);
+        }
+        return sql;
+    }
+    
+    /**
+     * Total statements prepared on this thread since it started; callers diff two readings
+     */
+    public static long threadStatementCount() {
+        return THREAD_STATS.get().statementCount;
+    }
+    
+    /**
+     * Most recent statement prepared on this thread, with literals redacted
+     */
+    public static String lastStatementRedacted() {
+        String sql = THREAD_STATS.get().lastStatement;
+        return sql == null ? null : redact(sql);
+    }
+    
+    /**
+     * Start capturing statements on this thread; scopes nest and restore the outer one on close
+     */
+    public static Scope openScope() {
+        ThreadStats stats = THREAD_STATS.get();
+        Scope scope = new Scope(stats, stats.scope);
+        stats.scope = scope;
+        return scope;
+    }
+    
+    /**
+     * Replace string and numeric literals so logged SQL never carries patient data
+     */
+    public static String redact(String sql) {
+        String redacted = STRING_LITERAL.matcher(sql).replaceAll("?");
+        return NUMERIC_LITERAL.matcher(redacted).replaceAll("?");
+    }
+    
+    private static class ThreadStats {
+        private long statementCount;
+        private String lastStatement;
+        private Scope scope;
+    }
+    
+    /**
+     * Statements captured between openScope() and close()
+     */
+    public static class Scope implements AutoCloseable {
+        
+        private final ThreadStats owner;
+        private final Scope parent;
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+        private int statementCount;
+        
+        private Scope(ThreadStats owner, Scope parent) {
+            this.owner = owner;
+            this.parent = parent;
+        }
+        
+        private void record(String sql) {
+            statementCount++;
+            statements.merge(redact(sql), 1, Integer::sum);
+            if (parent != null) {
+                parent.record(sql);
+            }
+        }
+        
+        public int getStatementCount() {
+            return statementCount;
+        }
+        
+        /**
+         * Distinct redacted statements and how many times each ran
+         */
+        public Map<String, Integer> getStatements() {
+            return Collections.unmodifiableMap(statements);
+        }
+        
+        /**
+         * Highest repetition count of any single statement
+         */
+        public int getMaxRepetitions() {
+            int max = 0;
+            for (int count : statements.values()) {
+                max = Math.max(max, count);
+            }
+            return max;
+        }
+        
+        @Override
+        public void close() {
+            owner.scope = parent;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.back_end.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Swaps the Jackson message converter for one that records response serialization time.
+ */
+@Configuration
+@ConditionalOnProperty(name = "clinic.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingMessageConverterConfig implements WebMvcConfigurer {
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter jacksonConverter) {
+                converters.set(i, new TracingJacksonConverter(jacksonConverter.getObjectMapper()));
+            }
+        }
+    }
+    
+    static class TracingJacksonConverter extends MappingJackson2HttpMessageConverter {
+        
+        TracingJacksonConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+        
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            RequestTrace trace = RequestTrace.current();
+            if (trace == null) {
+                super.writeInternal(object, type, outputMessage);
+                return;
+            }
+            trace.enter(RequestTrace.Phase.SERIALIZATION);
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                trace.exit();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.project.back_end.outbox;
+
+import com.project.back_end.model.AppointmentOutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * What subscribers receive for each outbox row. Delivery is at least once, so
+ * subscribers should be idempotent; outboxId is a stable key for de-duplication.
+ */
+public class AppointmentChangeEvent {
+    
+    public static final String BOOKED = "APPOINTMENT_BOOKED";
+    public static final String CANCELLED = "APPOINTMENT_CANCELLED";
+    public static final String COMPLETED = "APPOINTMENT_COMPLETED";
+    /** One doctor's appointments moved to a new status by a bulk sweep; payload has status and appointmentIds */
+    public static final String BULK_STATUS_CHANGED = "APPOINTMENTS_STATUS_CHANGED";
+    
+    private final Long outboxId;
+    private final String type;
+    private final Long appointmentId;
+    private final Long doctorId;
+    private final Long patientId;
+    private final LocalDateTime appointmentTime;
+    private final String status;
+    private final String payload;
+    private final LocalDateTime occurredAt;
+    
+    public AppointmentChangeEvent(AppointmentOutboxEvent row) {
+        this.outboxId = row.getId();
+        this.type = row.getEventType();
+        this.appointmentId = row.getAppointmentId();
+        this.doctorId = row.getDoctorId();
+        this.patientId = row.getPatientId();
+        this.appointmentTime = row.getAppointmentTime();
+        this.status = row.getStatus();
+        this.payload = row.getPayload();
+        this.occurredAt = row.getCreatedAt();
+    }
+    
+    public Long getOutboxId() {
+        return outboxId;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+    
+    public Long getDoctorId() {
+        return doctorId;
+    }
+    
+    public Long getPatientId() {
+        return patientId;
+    }
+    
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    /**
+     * JSON details for events covering several appointments, otherwise null
+     */
+    public String getPayload() {
+        return payload;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "AppointmentChangeEvent{" +
+                "outboxId=" + outboxId +
+                ", type=" + type +
+                ", appointmentId=" + appointmentId +
+                ", doctorId=" + doctorId +
+                '}';
+    }
+}
@@ -0,0 +1,10 @@
+package com.project.back_end.outbox;
+
+/**
+ * Optional external transport for appointment changes (e.g. a message broker).
+ * OutboxRelay publishes to it after the in-process subscribers.
+ */
+public interface AppointmentEventBroker {
+    
+    void publish(AppointmentChangeEvent event);
+}
@@ -0,0 +1,11 @@
+package com.project.back_end.outbox;
+
+/**
+ * In-process consumer of appointment changes. Any bean implementing this is picked
+ * up by OutboxRelay. Events for one doctor arrive in commit order; an exception stops
+ * delivery for that doctor until the next poll, when the same event is retried.
+ */
+public interface AppointmentEventSubscriber {
+    
+    void onAppointmentChange(AppointmentChangeEvent event);
+}
@@ -0,0 +1,45 @@
+package com.project.back_end.outbox;
+
+import com.project.back_end.model.Appointment;
+import com.project.back_end.model.AppointmentOutboxEvent;
+import com.project.back_end.repository.AppointmentOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Appends appointment changes to the outbox. Must run inside the transaction that
+ * changes the appointment, so the event exists if and only if the change commits.
+ * Each append first locks the doctor's outbox sequence row, which serialises writers per
+ * doctor: their events get ids in commit order, the order OutboxRelay delivers them in.
+ * A transaction appending for several doctors should do so in ascending doctor id.
+ */
+@Component
+public class AppointmentOutbox {
+    
+    @Autowired
+    private AppointmentOutboxRepository outboxRepository;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String eventType, Appointment appointment) {
+        outboxRepository.lockDoctorSequence(appointment.getDoctor().getId());
+        AppointmentOutboxEvent event = new AppointmentOutboxEvent(eventType, appointment.getDoctor().getId());
+        event.setAppointmentId(appointment.getId());
+        event.setPatientId(appointment.getPatient().getId());
+        event.setAppointmentTime(appointment.getAppointmentTime());
+        event.setStatus(appointment.getStatus().name());
+        outboxRepository.save(event);
+    }
+    
+    /**
+     * Append an event covering several appointments of one doctor; details go in the JSON payload
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendForDoctor(String eventType, Long doctorId, String payload) {
+        outboxRepository.lockDoctorSequence(doctorId);
+        AppointmentOutboxEvent event = new AppointmentOutboxEvent(eventType, doctorId);
+        event.setPayload(payload);
+        outboxRepository.save(event);
+    }
+}
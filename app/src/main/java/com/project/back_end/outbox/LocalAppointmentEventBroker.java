@@ -0,0 +1,43 @@
+package com.project.back_end.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Stand-in broker that keeps the most recent events in memory, for local runs and
+ * tests without a real broker. Enabled with clinic.outbox.broker=local.
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.outbox.broker", havingValue = "local")
+public class LocalAppointmentEventBroker implements AppointmentEventBroker {
+    
+    @Value("${clinic.outbox.local-broker.capacity:1000}")
+    private int capacity;
+    
+    private final Deque<AppointmentChangeEvent> published = new ArrayDeque<>();
+    
+    @Override
+    public synchronized void publish(AppointmentChangeEvent event) {
+        if (published.size() >= capacity) {
+            published.removeFirst();
+        }
+        published.addLast(event);
+    }
+    
+    /**
+     * Events published so far, oldest first
+     */
+    public synchronized List<AppointmentChangeEvent> getPublished() {
+        return new ArrayList<>(published);
+    }
+    
+    public synchronized void clear() {
+        published.clear();
+    }
+}
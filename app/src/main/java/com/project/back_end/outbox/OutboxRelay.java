@@ -0,0 +1,155 @@
+package com.project.back_end.outbox;
+
+import com.project.back_end.model.AppointmentOutboxEvent;
+import com.project.back_end.repository.AppointmentOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the outbox and delivers events to subscribers and the optional broker,
+ * at least once and in id order per doctor. Ids are assigned at insert rather than commit,
+ * but AppointmentOutbox serialises each doctor's writers on a sequence row lock, so within
+ * a doctor id order is commit order and a later event is never visible before an earlier
+ * one. Across doctors ids may commit out of order, which delivery does not depend on.
+ * If delivery fails for an event,
+ * later events for the same doctor are held back until it succeeds; other doctors'
+ * events keep flowing. Run it on exactly one instance (clinic.outbox.relay-enabled),
+ * since two relays would interleave a doctor's events.
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    @Autowired
+    private AppointmentOutboxRepository outboxRepository;
+    
+    @Autowired(required = false)
+    private List<AppointmentEventSubscriber> subscribers = List.of();
+    
+    @Autowired
+    private ObjectProvider<AppointmentEventBroker> broker;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${clinic.outbox.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${clinic.outbox.max-attempts:20}")
+    private int maxAttempts;
+    
+    @Value("${clinic.outbox.retention-hours:72}")
+    private long retentionHours;
+    
+    @Value("${clinic.outbox.cleanup-chunk-size:5000}")
+    private int cleanupChunkSize;
+    
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+    private Timer deliveryLag;
+    private Counter deliveryFailures;
+    
+    @PostConstruct
+    public void registerMetrics() {
+        deliveryLag = Timer.builder("clinic.outbox.delivery.lag")
+            .description("Time from outbox write to successful delivery")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        deliveryFailures = Counter.builder("clinic.outbox.delivery.failures")
+            .description("Outbox events whose delivery threw and will be retried")
+            .register(meterRegistry);
+        Gauge.builder("clinic.outbox.oldest.pending.age", oldestPendingAgeMs, AtomicLong::get)
+            .description("Age in milliseconds of the oldest undelivered outbox event at the last poll")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${clinic.outbox.poll-interval-ms:500}")
+    public void relay() {
+        List<AppointmentOutboxEvent> batch = outboxRepository.findUnpublished(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            oldestPendingAgeMs.set(0);
+            return;
+        }
+        oldestPendingAgeMs.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+        
+        Set<Long> blockedDoctors = new HashSet<>();
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (AppointmentOutboxEvent row : batch) {
+            if (blockedDoctors.contains(row.getDoctorId())) {
+                continue;
+            }
+            AppointmentChangeEvent event = new AppointmentChangeEvent(row);
+            try {
+                deliver(event);
+                delivered.add(row.getId());
+                deliveryLag.record(Duration.between(row.getCreatedAt(), LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                deliveryFailures.increment();
+                if (row.getAttempts() + 1 >= maxAttempts) {
+                    // Give up rather than hold this doctor's events forever
+                    logger.error("Outbox event {} failed {} times, skipping it: {}", row.getId(), maxAttempts, event, e);
+                    delivered.add(row.getId());
+                    continue;
+                }
+                blockedDoctors.add(row.getDoctorId());
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.incrementAttempts(row.getId()));
+                logger.warn("Outbox event {} failed (attempt {}), holding doctor {}: {}",
+                    row.getId(), row.getAttempts() + 1, row.getDoctorId(), e.toString());
+            }
+        }
+        if (!delivered.isEmpty()) {
+            // A crash before this commit redelivers the batch: at-least-once
+            transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.markPublished(delivered, LocalDateTime.now()));
+        }
+    }
+    
+    /**
+     * Delete delivered events past retention, a chunk per transaction
+     */
+    @Scheduled(fixedDelayString = "${clinic.outbox.cleanup-interval-ms:3600000}")
+    public void removeDeliveredEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                outboxRepository.deletePublishedBefore(cutoff, cleanupChunkSize));
+        } while (deleted == cleanupChunkSize);
+    }
+    
+    private void deliver(AppointmentChangeEvent event) {
+        for (AppointmentEventSubscriber subscriber : subscribers) {
+            subscriber.onAppointmentChange(event);
+        }
+        AppointmentEventBroker eventBroker = broker.getIfAvailable();
+        if (eventBroker != null) {
+            eventBroker.publish(event);
+        }
+    }
+}
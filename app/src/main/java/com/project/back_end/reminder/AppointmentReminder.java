@@ -0,0 +1,44 @@
+package com.project.back_end.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reminder that is due to be sent for one scheduled appointment
+ */
+public class AppointmentReminder {
+    
+    private final Long appointmentId;
+    private final Long patientId;
+    private final Long doctorId;
+    private final LocalDateTime appointmentTime;
+    private final LocalDateTime dueAt;
+    
+    public AppointmentReminder(Long appointmentId, Long patientId, Long doctorId,
+                               LocalDateTime appointmentTime, LocalDateTime dueAt) {
+        this.appointmentId = appointmentId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.appointmentTime = appointmentTime;
+        this.dueAt = dueAt;
+    }
+    
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+    
+    public Long getPatientId() {
+        return patientId;
+    }
+    
+    public Long getDoctorId() {
+        return doctorId;
+    }
+    
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+    
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+}
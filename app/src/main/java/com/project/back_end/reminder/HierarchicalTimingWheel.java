@@ -0,0 +1,150 @@
+package com.project.back_end.reminder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck). Level i has wheelSize slots of
+ * tickMs * wheelSize^i each; a timer sits in the lowest level whose range covers it
+ * and cascades down a level each time its slot comes round, so scheduling, cancelling
+ * and firing are O(1) regardless of how many timers are pending. Timers beyond the top
+ * level wait in an overflow list. Not thread-safe; callers synchronize.
+ */
+public class HierarchicalTimingWheel<T> {
+    
+    private static final int OVERFLOW = -1;
+    
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTickMs;
+    private final List<List<Map<Long, Timer<T>>>> levels;
+    private final Map<Long, Timer<T>> overflow = new LinkedHashMap<>();
+    private final Map<Long, Timer<T>> timers = new HashMap<>();
+    
+    // Start of the current tick; everything due before currentTime + tickMs has fired
+    private long currentTime;
+    
+    private static final class Timer<T> {
+        final long key;
+        final long deadline;
+        final T payload;
+        int level;
+        int slot;
+        
+        Timer(long key, long deadline, T payload) {
+            this.key = key;
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+    }
+    
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levelCount, long startTimeMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTickMs = new long[levelCount];
+        this.levels = new ArrayList<>(levelCount);
+        long levelTick = tickMs;
+        for (int level = 0; level < levelCount; level++) {
+            levelTickMs[level] = levelTick;
+            List<Map<Long, Timer<T>>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new LinkedHashMap<>());
+            }
+            levels.add(slots);
+            levelTick *= wheelSize;
+        }
+        this.currentTime = startTimeMs - Math.floorMod(startTimeMs, tickMs);
+    }
+    
+    /**
+     * Schedule or reschedule the timer for a key. Returns false, without scheduling,
+     * if the deadline is already due; the caller should fire it directly.
+     */
+    public boolean schedule(long key, long deadlineMs, T payload) {
+        cancel(key);
+        Timer<T> timer = new Timer<>(key, deadlineMs, payload);
+        if (!place(timer)) {
+            return false;
+        }
+        timers.put(key, timer);
+        return true;
+    }
+    
+    public boolean cancel(long key) {
+        Timer<T> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        bucket(timer).remove(key);
+        return true;
+    }
+    
+    /**
+     * Move time forward to nowMs and return the payloads of every timer that came due, in tick order
+     */
+    public List<T> advance(long nowMs) {
+        List<T> due = new ArrayList<>();
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // Highest level first, so cascaded timers land in lower slots processed this same tick
+            for (int level = levels.size() - 1; level >= 0; level--) {
+                if (currentTime % levelTickMs[level] != 0) {
+                    continue;
+                }
+                if (level == levels.size() - 1 && Math.floorMod(currentTime / levelTickMs[level], wheelSize) == 0) {
+                    cascade(overflow, due);
+                }
+                int slot = (int) Math.floorMod(currentTime / levelTickMs[level], (long) wheelSize);
+                cascade(levels.get(level).get(slot), due);
+            }
+        }
+        return due;
+    }
+    
+    public int size() {
+        return timers.size();
+    }
+    
+    private void cascade(Map<Long, Timer<T>> bucket, List<T> due) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Timer<T>> moving = new ArrayList<>(bucket.values());
+        bucket.clear();
+        for (Timer<T> timer : moving) {
+            if (!place(timer)) {
+                timers.remove(timer.key);
+                due.add(timer.payload);
+            }
+        }
+    }
+    
+    /**
+     * Put a timer in the lowest level where it is less than one revolution ahead
+     */
+    private boolean place(Timer<T> timer) {
+        if (timer.deadline < currentTime + tickMs) {
+            return false;
+        }
+        for (int level = 0; level < levels.size(); level++) {
+            long periodsAhead = Math.floorDiv(timer.deadline, levelTickMs[level])
+                - Math.floorDiv(currentTime, levelTickMs[level]);
+            if (periodsAhead < wheelSize) {
+                timer.level = level;
+                timer.slot = (int) Math.floorMod(Math.floorDiv(timer.deadline, levelTickMs[level]), (long) wheelSize);
+                levels.get(level).get(timer.slot).put(timer.key, timer);
+                return true;
+            }
+        }
+        timer.level = OVERFLOW;
+        overflow.put(timer.key, timer);
+        return true;
+    }
+    
+    private Map<Long, Timer<T>> bucket(Timer<T> timer) {
+        return timer.level == OVERFLOW ? overflow : levels.get(timer.level).get(timer.slot);
+    }
+}
@@ -0,0 +1,46 @@
+package com.project.back_end.reminder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in notifier that appends one line per reminder to a local file, used until a
+ * real email/SMS notifier is configured (clinic.reminders.notifier=log).
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.reminders.notifier", havingValue = "log", matchIfMissing = true)
+public class LogFileReminderNotifier implements ReminderNotifier {
+    
+    @Value("${clinic.reminders.log-file:logs/appointment-reminders.log}")
+    private Path logFile;
+    
+    @Override
+    public synchronized void send(List<AppointmentReminder> reminders) {
+        List<String> lines = new ArrayList<>(reminders.size());
+        for (AppointmentReminder reminder : reminders) {
+            lines.add("appointmentId=" + reminder.getAppointmentId()
+                + " patientId=" + reminder.getPatientId()
+                + " doctorId=" + reminder.getDoctorId()
+                + " appointmentTime=" + reminder.getAppointmentTime()
+                + " dueAt=" + reminder.getDueAt());
+        }
+        try {
+            if (logFile.getParent() != null) {
+                Files.createDirectories(logFile.getParent());
+            }
+            Files.write(logFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
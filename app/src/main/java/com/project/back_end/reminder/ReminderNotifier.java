@@ -0,0 +1,12 @@
+package com.project.back_end.reminder;
+
+import java.util.List;
+
+/**
+ * Delivers appointment reminders (email, SMS, push...). Called with batches; throwing
+ * means none of the batch is considered sent and it will be retried.
+ */
+public interface ReminderNotifier {
+    
+    void send(List<AppointmentReminder> reminders);
+}
@@ -0,0 +1,339 @@
+package com.project.back_end.reminder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.model.SchedulerWatermark;
+import com.project.back_end.monitoring.ServiceMetrics;
+import com.project.back_end.outbox.AppointmentChangeEvent;
+import com.project.back_end.outbox.AppointmentEventSubscriber;
+import com.project.back_end.repository.AppointmentRepository;
+import com.project.back_end.repository.SchedulerWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends a reminder a fixed lead time before each scheduled appointment.
+ *
+ * Reminders live in a hierarchical timing wheel that holds only the next load-ahead
+ * window. A loader extends the window incrementally with a keyset range scan, and
+ * outbox events add bookings and remove cancellations inside the window. The dispatch
+ * watermark (every reminder due at or before it has been sent) is persisted after each
+ * dispatch, held just below the earliest reminder still waiting for a retry or for its
+ * first send, so a restart reloads from it and sends anything missed while down.
+ * Delivery is at least once: a crash between sending and saving the watermark resends
+ * that batch.
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler implements AppointmentEventSubscriber {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+    private static final String WATERMARK = "appointment-reminders";
+    
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    
+    @Autowired
+    private SchedulerWatermarkRepository watermarkRepository;
+    
+    @Autowired
+    private ReminderNotifier notifier;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${clinic.reminders.lead-time-hours:24}")
+    private long leadTimeHours;
+    
+    @Value("${clinic.reminders.load-ahead-minutes:120}")
+    private long loadAheadMinutes;
+    
+    @Value("${clinic.reminders.load-page-size:1000}")
+    private int loadPageSize;
+    
+    @Value("${clinic.reminders.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${clinic.reminders.retry-delay-seconds:60}")
+    private long retryDelaySeconds;
+    
+    @Value("${clinic.reminders.idle-save-interval-ms:60000}")
+    private long idleSaveIntervalMs;
+    
+    private final ZoneId zone = ZoneId.systemDefault();
+    
+    // Guarded by this
+    private HierarchicalTimingWheel<AppointmentReminder> wheel;
+    private final List<AppointmentReminder> overdue = new ArrayList<>();
+    // Reminders whose send failed, by appointment id, with their original due time
+    private final Map<Long, LocalDateTime> awaitingRetry = new HashMap<>();
+    private LocalDateTime loadedThrough;
+    
+    private volatile boolean ready;
+    
+    // Only touched by the dispatch thread
+    private LocalDateTime lastSavedAt;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dispatchedThrough = watermarkRepository.findById(WATERMARK)
+            .map(SchedulerWatermark::getWatermark)
+            .orElse(now);
+        synchronized (this) {
+            // 1s ticks, 64 slots per level: 64s, ~68min, ~73h, ~194 days
+            wheel = new HierarchicalTimingWheel<>(1000, 64, 4, toEpochMs(now));
+            loadedThrough = dispatchedThrough;
+        }
+        ready = true;
+        serviceMetrics.registerCacheSize("reminders.pending", this::pendingCount);
+        loadAhead();
+        logger.info("Reminder scheduler resumed from {}", dispatchedThrough);
+    }
+    
+    /**
+     * Extend the loaded window to now + load-ahead, reading only appointments whose
+     * reminder falls in the newly covered interval
+     */
+    @Scheduled(fixedDelayString = "${clinic.reminders.load-interval-ms:60000}")
+    public void loadAhead() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime from;
+        synchronized (this) {
+            from = loadedThrough;
+        }
+        LocalDateTime to = LocalDateTime.now().plusMinutes(loadAheadMinutes);
+        if (!to.isAfter(from)) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime afterTime = from.plusHours(leadTimeHours);
+        Long afterId = Long.MAX_VALUE;
+        int loaded = 0;
+        List<Object[]> page;
+        do {
+            page = appointmentRepository.findScheduledBetween(afterTime, afterId, to.plusHours(leadTimeHours),
+                PageRequest.of(0, loadPageSize));
+            synchronized (this) {
+                for (Object[] row : page) {
+                    afterId = (Long) row[0];
+                    afterTime = (LocalDateTime) row[3];
+                    // After a long outage the reload reaches appointments that have already started
+                    if (afterTime.isAfter(now)) {
+                        schedule(new AppointmentReminder(afterId, (Long) row[1], (Long) row[2], afterTime,
+                            afterTime.minusHours(leadTimeHours)));
+                    }
+                }
+            }
+            loaded += page.size();
+        } while (page.size() == loadPageSize);
+        
+        synchronized (this) {
+            loadedThrough = to;
+        }
+        if (loaded > 0) {
+            logger.debug("Loaded {} reminders due through {}", loaded, to);
+        }
+    }
+    
+    /**
+     * Fire due reminders in batches and advance the persisted watermark
+     */
+    @Scheduled(fixedDelayString = "${clinic.reminders.tick-interval-ms:1000}")
+    public void dispatch() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<AppointmentReminder> due;
+        synchronized (this) {
+            due = new ArrayList<>(overdue);
+            overdue.clear();
+            due.addAll(wheel.advance(toEpochMs(now)));
+        }
+        if (due.isEmpty()) {
+            saveWatermark(safeWatermark(now), false);
+            return;
+        }
+        
+        boolean anySent = false;
+        for (int start = 0; start < due.size(); start += batchSize) {
+            List<AppointmentReminder> batch = due.subList(start, Math.min(start + batchSize, due.size()));
+            try {
+                List<AppointmentReminder> stillScheduled = stillScheduled(batch);
+                if (!stillScheduled.isEmpty()) {
+                    notifier.send(stillScheduled);
+                }
+                sent(batch);
+                anySent = true;
+            } catch (RuntimeException e) {
+                logger.warn("Sending {} reminders failed, retrying in {}s: {}", batch.size(), retryDelaySeconds, e.toString());
+                retryLater(batch, now.plusSeconds(retryDelaySeconds));
+            }
+        }
+        saveWatermark(safeWatermark(now), anySent);
+    }
+    
+    @Override
+    public void onAppointmentChange(AppointmentChangeEvent event) {
+        if (!ready) {
+            return;
+        }
+        if (AppointmentChangeEvent.BULK_STATUS_CHANGED.equals(event.getType())) {
+            cancelAll(event.getPayload());
+            return;
+        }
+        if (event.getAppointmentId() == null) {
+            return;
+        }
+        switch (event.getType()) {
+            case AppointmentChangeEvent.BOOKED -> {
+                LocalDateTime dueAt = event.getAppointmentTime().minusHours(leadTimeHours);
+                synchronized (this) {
+                    // Later reminders are picked up by the loader when the window reaches them
+                    if (event.getAppointmentTime().isAfter(LocalDateTime.now()) && !dueAt.isAfter(loadedThrough)) {
+                        schedule(new AppointmentReminder(event.getAppointmentId(), event.getPatientId(),
+                            event.getDoctorId(), event.getAppointmentTime(), dueAt));
+                    }
+                }
+            }
+            case AppointmentChangeEvent.CANCELLED, AppointmentChangeEvent.COMPLETED -> {
+                synchronized (this) {
+                    wheel.cancel(event.getAppointmentId());
+                    awaitingRetry.remove(event.getAppointmentId());
+                }
+            }
+            default -> {
+            }
+        }
+    }
+    
+    /**
+     * Bulk sweeps only ever move appointments out of SCHEDULED, so drop every listed reminder
+     */
+    private void cancelAll(String payload) {
+        JsonNode appointmentIds;
+        try {
+            appointmentIds = objectMapper.readTree(payload).path("appointmentIds");
+        } catch (Exception e) {
+            // Dispatch re-checks status before sending, so a bad payload only costs a query
+            logger.warn("Ignoring unreadable bulk status payload: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            for (JsonNode id : appointmentIds) {
+                wheel.cancel(id.asLong());
+                awaitingRetry.remove(id.asLong());
+            }
+        }
+    }
+    
+    public synchronized int pendingCount() {
+        return wheel != null ? wheel.size() + overdue.size() : 0;
+    }
+    
+    // Caller holds the lock
+    private void schedule(AppointmentReminder reminder) {
+        if (!wheel.schedule(reminder.getAppointmentId(), toEpochMs(reminder.getDueAt()), reminder)) {
+            // Already due, e.g. booked less than the lead time ahead or missed while down
+            overdue.add(reminder);
+        }
+    }
+    
+    private synchronized void retryLater(List<AppointmentReminder> batch, LocalDateTime retryAt) {
+        for (AppointmentReminder reminder : batch) {
+            awaitingRetry.putIfAbsent(reminder.getAppointmentId(), reminder.getDueAt());
+            wheel.schedule(reminder.getAppointmentId(), toEpochMs(retryAt), reminder);
+        }
+    }
+    
+    private synchronized void sent(List<AppointmentReminder> batch) {
+        for (AppointmentReminder reminder : batch) {
+            awaitingRetry.remove(reminder.getAppointmentId());
+        }
+    }
+    
+    /**
+     * The latest watermark that keeps the invariant: now, unless a reminder that is already
+     * due is still waiting for a retry or its first send. Then it is one second before the
+     * earliest of those. The reload scan starts strictly after the watermark, and the column
+     * may be stored to the second, so the extra second makes sure that reminder is reloaded.
+     */
+    private synchronized LocalDateTime safeWatermark(LocalDateTime now) {
+        LocalDateTime earliest = null;
+        for (LocalDateTime dueAt : awaitingRetry.values()) {
+            if (earliest == null || dueAt.isBefore(earliest)) {
+                earliest = dueAt;
+            }
+        }
+        for (AppointmentReminder reminder : overdue) {
+            if (earliest == null || reminder.getDueAt().isBefore(earliest)) {
+                earliest = reminder.getDueAt();
+            }
+        }
+        if (earliest == null || earliest.isAfter(now)) {
+            return now;
+        }
+        return earliest.minusSeconds(1);
+    }
+    
+    /**
+     * Drop reminders for appointments cancelled since they were loaded, in one query
+     */
+    private List<AppointmentReminder> stillScheduled(List<AppointmentReminder> batch) {
+        Set<Long> ids = new HashSet<>();
+        for (AppointmentReminder reminder : batch) {
+            ids.add(reminder.getAppointmentId());
+        }
+        Set<Long> scheduled = new HashSet<>(appointmentRepository.findScheduledIds(ids));
+        List<AppointmentReminder> result = new ArrayList<>(scheduled.size());
+        for (AppointmentReminder reminder : batch) {
+            if (scheduled.contains(reminder.getAppointmentId())) {
+                result.add(reminder);
+            }
+        }
+        return result;
+    }
+    
+    private void saveWatermark(LocalDateTime dispatchedThrough, boolean sent) {
+        // When nothing was sent, moving the watermark only shortens the restart reload,
+        // so idle ticks write at most once per idle-save interval
+        if (!sent && lastSavedAt != null
+                && Duration.between(lastSavedAt, dispatchedThrough).toMillis() < idleSaveIntervalMs) {
+            return;
+        }
+        SchedulerWatermark watermark = watermarkRepository.findById(WATERMARK)
+            .orElseGet(() -> new SchedulerWatermark(WATERMARK, dispatchedThrough));
+        watermark.setWatermark(dispatchedThrough);
+        watermarkRepository.save(watermark);
+        lastSavedAt = dispatchedThrough;
+    }
+    
+    private long toEpochMs(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+}
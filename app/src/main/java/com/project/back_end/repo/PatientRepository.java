@@ -1,14 +1,23 @@
 package com.project.back_end.repository;
 
+import com.project.back_end.dto.RecallPatientDTO;
 import com.project.back_end.model.Patient;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
@@ -30,10 +39,25 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     boolean existsByEmail(String email);
     
     /**
-     * Find patients by name (partial match, case insensitive)
+     * Stream every patient email (one column, no entities) for rebuilding the
+     * registration Bloom filter. MySQL only streams rows with this fetch size;
+     * must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT p.email FROM Patient p")
+    Stream<String> streamAllEmails();
+    
+    /**
+     * Allergies column only, for prescription interaction checks
+     */
+    @Query("SELECT p.allergies FROM Patient p WHERE p.id = :id")
+    Optional<String> findAllergiesById(@Param("id") Long id);
+    
+    /**
+     * (id, allergies) pairs for several patients in one query
      */
-    @Query("SELECT p FROM Patient p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Patient> findByNameContainingIgnoreCase(@Param("name") String name);
+    @Query("SELECT p.id, p.allergies FROM Patient p WHERE p.id IN :ids")
+    List<Object[]> findAllergiesByIds(@Param("ids") Collection<Long> ids);
     
     /**
      * Find patients by phone number
@@ -85,15 +109,31 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     List<Patient> findPatientsWithUpcomingAppointments();
     
     /**
-     * Search patients by multiple criteria
+     * Ranked full-text search over name, email and phone (ft_patient_search index).
+     * The query uses MySQL boolean mode syntax, e.g. "+john* +smi*".
      */
-    @Query("SELECT p FROM Patient p WHERE " +
-           "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-           "(:email IS NULL OR LOWER(p.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
-           "(:phone IS NULL OR p.phone LIKE CONCAT('%', :phone, '%'))")
-    List<Patient> searchPatients(@Param("name") String name, 
-                               @Param("email") String email, 
-                               @Param("phone") String phone);
+    @Query(value = "SELECT p.* FROM patient p " +
+                   "WHERE MATCH(p.name, p.email, p.phone) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(p.name, p.email, p.phone) AGAINST (:query IN BOOLEAN MODE) DESC, p.id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Patient> fullTextSearch(@Param("query") String query, @Param("limit") int limit);
+    
+    /**
+     * Find patients whose name matches a LIKE pattern with '!' as the escape character, for
+     * terms too short for the full-text index. Pass a literal prefix followed by '%' so the
+     * lookup is a range scan on idx_patient_name; the column collation is case-insensitive.
+     */
+    @Query("SELECT p FROM Patient p WHERE p.name LIKE :pattern ESCAPE '!' ORDER BY p.name")
+    List<Patient> findByNameLike(@Param("pattern") String pattern, Pageable pageable);
+    
+    /**
+     * Cohort attributes (id, blood group, gender, date of birth, allergies) in id order,
+     * read one keyset chunk at a time
+     */
+    @Query("SELECT p.id, p.bloodGroup, p.gender, p.dateOfBirth, p.allergies FROM Patient p " +
+           "WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findCohortAttributesAfter(@Param("afterId") Long afterId, Pageable pageable);
     
     /**
      * Find patients by age range (calculated from date of birth)
@@ -106,10 +146,36 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     List<Patient> findPatientsByAgeRange(@Param("minAge") int minAge, @Param("maxAge") int maxAge);
     
     /**
-     * Find patients who haven't had appointments in the last N months
+     * Recall list, first part: patients never seen and with nothing upcoming, in patient ID
+     * order after the given ID. Reads the maintained patient_visit_summary rather than the
+     * appointment table.
+     */
+    @Query("SELECT new com.project.back_end.dto.RecallPatientDTO(p.id, p.name, p.email, p.phone, s.lastVisitAt) " +
+           "FROM PatientVisitSummary s JOIN Patient p ON p.id = s.patientId WHERE " +
+           "s.lastVisitAt IS NULL AND s.patientId > :afterId AND " +
+           "(s.nextVisitAt IS NULL OR s.nextVisitAt < CURRENT_TIMESTAMP) " +
+           "ORDER BY s.patientId")
+    List<RecallPatientDTO> findRecallNeverVisited(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Recall list, second part: patients last seen before the given time with nothing
+     * upcoming, longest overdue first, keyset-paged on (last visit, patient ID) after the
+     * given position (idx_visit_summary_last_visit, which ends in the primary key)
+     */
+    @Query("SELECT new com.project.back_end.dto.RecallPatientDTO(p.id, p.name, p.email, p.phone, s.lastVisitAt) " +
+           "FROM PatientVisitSummary s JOIN Patient p ON p.id = s.patientId WHERE " +
+           "s.lastVisitAt < :since AND " +
+           "(s.lastVisitAt > :afterVisit OR (s.lastVisitAt = :afterVisit AND s.patientId > :afterId)) AND " +
+           "(s.nextVisitAt IS NULL OR s.nextVisitAt < CURRENT_TIMESTAMP) " +
+           "ORDER BY s.lastVisitAt, s.patientId")
+    List<RecallPatientDTO> findRecallLastVisitBefore(@Param("since") LocalDateTime since,
+                                                     @Param("afterVisit") LocalDateTime afterVisit,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+    
+    /**
+     * Highest patient ID, used to bound chunked maintenance jobs
      */
-    @Query("SELECT p FROM Patient p WHERE p.id NOT IN " +
-           "(SELECT DISTINCT a.patient.id FROM Appointment a " +
-           "WHERE a.appointmentTime >= :sinceDate)")
-    List<Patient> findPatientsWithoutRecentAppointments(@Param("sinceDate") LocalDate sinceDate);
+    @Query("SELECT MAX(p.id) FROM Patient p")
+    Long findMaxId();
 }
@@ -0,0 +1,40 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.Admin;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface AdminRepository extends JpaRepository<Admin, Long> {
+    
+    /**
+     * Find admin by email address
+     */
+    Optional<Admin> findByEmail(String email);
+    
+    /**
+     * Check if admin exists by email
+     */
+    boolean existsByEmail(String email);
+    
+    /**
+     * Check if admin exists by username
+     */
+    boolean existsByUsername(String username);
+    
+    /**
+     * Stream every admin email and username (two columns, no entities) for rebuilding
+     * the registration Bloom filters. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT a.email, a.username FROM Admin a")
+    Stream<Object[]> streamEmailsAndUsernames();
+}
@@ -0,0 +1,63 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.AppointmentOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface AppointmentOutboxRepository extends JpaRepository<AppointmentOutboxEvent, Long> {
+    
+    /**
+     * Oldest unpublished events first (idx_outbox_unpublished). Ids are assigned at insert,
+     * not commit, so across doctors a lower id can still become visible later; within one
+     * doctor lockDoctorSequence makes id order the commit order.
+     */
+    @Query("SELECT e FROM AppointmentOutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+    List<AppointmentOutboxEvent> findUnpublished(Pageable pageable);
+    
+    /**
+     * Bump the doctor's outbox sequence, creating it on first use. The row lock is held until
+     * the calling transaction ends, so a second writer for the same doctor inserts its event
+     * only after the first has committed or rolled back.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "outbox_doctor_sequence"))
+    @Query(value = "INSERT INTO outbox_doctor_sequence (doctor_id, seq) VALUES (:doctorId, 1) " +
+                   "ON DUPLICATE KEY UPDATE seq = seq + 1",
+           nativeQuery = true)
+    int lockDoctorSequence(@Param("doctorId") Long doctorId);
+    
+    /**
+     * Mark a batch of events delivered
+     */
+    @Modifying
+    @Query("UPDATE AppointmentOutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    /**
+     * Record a failed delivery attempt
+     */
+    @Modifying
+    @Query("UPDATE AppointmentOutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id = :id")
+    int incrementAttempts(@Param("id") Long id);
+    
+    /**
+     * Remove one chunk of delivered events older than the cutoff
+     */
+    @Modifying
+    @Query(value = "DELETE FROM appointment_outbox WHERE published_at < :cutoff LIMIT :limit",
+           nativeQuery = true)
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,170 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.Appointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+    
+    /**
+     * Find a doctor's appointments in a time range
+     */
+    List<Appointment> findByDoctorIdAndAppointmentTimeBetweenOrderByAppointmentTime(
+        Long doctorId, LocalDateTime start, LocalDateTime end);
+    
+    /**
+     * Find a doctor's appointments in a time range with a given status
+     */
+    List<Appointment> findByDoctorIdAndAppointmentTimeBetweenAndStatus(
+        Long doctorId, LocalDateTime start, LocalDateTime end, Appointment.AppointmentStatus status);
+    
+    /**
+     * Find all appointments for a doctor, newest first
+     */
+    List<Appointment> findByDoctorIdOrderByAppointmentTimeDesc(Long doctorId);
+    
+    /**
+     * Find all appointments for a patient, newest first, with doctor and patient in the same select
+     */
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    List<Appointment> findByPatientIdOrderByAppointmentTimeDesc(Long patientId);
+    
+    /**
+     * Whether the doctor has any appointment with the patient
+     */
+    boolean existsByDoctorIdAndPatientId(Long doctorId, Long patientId);
+    
+    /**
+     * Find a patient's appointments after a time with a given status
+     */
+    List<Appointment> findByPatientIdAndAppointmentTimeAfterAndStatusOrderByAppointmentTime(
+        Long patientId, LocalDateTime time, Appointment.AppointmentStatus status);
+    
+    /**
+     * Find a doctor's appointments after a time with a given status
+     */
+    List<Appointment> findByDoctorIdAndAppointmentTimeAfterAndStatusOrderByAppointmentTime(
+        Long doctorId, LocalDateTime time, Appointment.AppointmentStatus status);
+    
+    /**
+     * Scheduled appointments in (from, to] as (id, patientId, doctorId, appointmentTime),
+     * keyset-paged on (appointmentTime, id) after the given position (idx_appointment_status_time)
+     */
+    @Query("SELECT a.id, a.patient.id, a.doctor.id, a.appointmentTime FROM Appointment a " +
+           "WHERE a.status = com.project.back_end.model.Appointment.AppointmentStatus.SCHEDULED " +
+           "AND a.appointmentTime <= :to " +
+           "AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId)) " +
+           "ORDER BY a.appointmentTime, a.id")
+    List<Object[]> findScheduledBetween(@Param("afterTime") LocalDateTime afterTime,
+                                       @Param("afterId") Long afterId,
+                                       @Param("to") LocalDateTime to,
+                                       Pageable pageable);
+    
+    /**
+     * Which of the given appointments are still scheduled
+     */
+    @Query("SELECT a.id FROM Appointment a WHERE a.id IN :ids " +
+           "AND a.status = com.project.back_end.model.Appointment.AppointmentStatus.SCHEDULED")
+    List<Long> findScheduledIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Inactive doctors that still have scheduled appointments from a time onwards, i.e.
+     * deactivations whose cancellation sweep has not finished
+     */
+    @Query("SELECT DISTINCT a.doctor.id FROM Appointment a " +
+           "WHERE a.status = com.project.back_end.model.Appointment.AppointmentStatus.SCHEDULED " +
+           "AND a.appointmentTime >= :from AND a.doctor.isActive = false")
+    List<Long> findInactiveDoctorsWithScheduled(@Param("from") LocalDateTime from);
+    
+    /**
+     * Appointments from a time onwards as (id, doctorId, appointmentTime, status, specialty),
+     * keyset-paged on id, for building the analytics snapshot
+     */
+    @Query("SELECT a.id, d.id, a.appointmentTime, a.status, d.specialty FROM Appointment a JOIN a.doctor d " +
+           "WHERE a.appointmentTime >= :from AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findAnalyticsRowsAfter(@Param("from") LocalDateTime from,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+    
+    /**
+     * Bookings from a time onwards as (id, doctorId, patientId, appointmentTime),
+     * keyset-paged on id, for seeding the distinct-patient sketches
+     */
+    @Query("SELECT a.id, a.doctor.id, a.patient.id, a.appointmentTime FROM Appointment a " +
+           "WHERE a.appointmentTime >= :from AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findDoctorPatientPairsAfter(@Param("from") LocalDateTime from,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    /**
+     * Lock the next chunk of scheduled appointments in [from, to), optionally for one doctor,
+     * as (id, patient_id, doctor_id). Rows leave the range once their status is changed,
+     * so each chunk simply takes the first rows still matching (idx_appointment_status_time).
+     */
+    @Query(value = "SELECT a.id, a.patient_id, a.doctor_id FROM appointment a " +
+                   "WHERE a.status = 'SCHEDULED' AND a.appointment_time >= :from AND a.appointment_time < :to " +
+                   "AND (:doctorId IS NULL OR a.doctor_id = :doctorId) " +
+                   "ORDER BY a.appointment_time, a.id LIMIT :limit FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> lockScheduledChunk(@Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("doctorId") Long doctorId,
+                                      @Param("limit") int limit);
+    
+    /**
+     * Set the status of many appointments in one statement. Bulk JPQL skips @PreUpdate,
+     * so updatedAt is set here; Hibernate only invalidates the appointment cache region.
+     */
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :status, a.updatedAt = :now " +
+           "WHERE a.id IN :ids AND a.status = com.project.back_end.model.Appointment.AppointmentStatus.SCHEDULED")
+    int updateScheduledStatus(@Param("ids") Collection<Long> ids,
+                              @Param("status") Appointment.AppointmentStatus status,
+                              @Param("now") LocalDateTime now);
+    
+    /**
+     * Lock the next chunk of finished appointments older than the cutoff, for archiving
+     */
+    @Query(value = "SELECT a.id FROM appointment a " +
+                   "WHERE a.status IN ('COMPLETED', 'CANCELLED', 'NO_SHOW') AND a.appointment_time < :cutoff " +
+                   "LIMIT :limit FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockArchivableChunk(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "appointment_archive"))
+    @Query(value = "INSERT INTO appointment_archive (id, patient_id, doctor_id, appointment_time, status, " +
+                   "reason, notes, created_at, updated_at, archived_at) " +
+                   "SELECT a.id, a.patient_id, a.doctor_id, a.appointment_time, a.status, " +
+                   "a.reason, a.notes, a.created_at, a.updated_at, NOW() " +
+                   "FROM appointment a WHERE a.id IN (:ids)",
+           nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "appointment"))
+    @Query(value = "DELETE FROM appointment WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Delete up to limit of a doctor's appointments, for purging a deactivated doctor
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "appointment"))
+    @Query(value = "DELETE FROM appointment WHERE doctor_id = :doctorId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByDoctor(@Param("doctorId") Long doctorId, @Param("limit") int limit);
+}
@@ -0,0 +1,67 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.ArchivedAppointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+    
+    /**
+     * Find a doctor's archived appointments in a time range (idx_archive_doctor_time)
+     */
+    List<ArchivedAppointment> findByDoctorIdAndAppointmentTimeBetweenOrderByAppointmentTime(
+        Long doctorId, LocalDateTime start, LocalDateTime end);
+    
+    /**
+     * Find all archived appointments for a doctor, newest first
+     */
+    List<ArchivedAppointment> findByDoctorIdOrderByAppointmentTimeDesc(Long doctorId);
+    
+    /**
+     * Find all archived appointments for a patient, newest first
+     */
+    List<ArchivedAppointment> findByPatientIdOrderByAppointmentTimeDesc(Long patientId);
+    
+    /**
+     * Whether the doctor has any archived appointment with the patient
+     */
+    boolean existsByDoctorIdAndPatientId(Long doctorId, Long patientId);
+    
+    /**
+     * Same shape as AppointmentRepository#findAnalyticsRowsAfter
+     */
+    @Query("SELECT a.id, d.id, a.appointmentTime, a.status, d.specialty FROM ArchivedAppointment a JOIN a.doctor d " +
+           "WHERE a.appointmentTime >= :from AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findAnalyticsRowsAfter(@Param("from") LocalDateTime from,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+    
+    /**
+     * Same shape as AppointmentRepository#findDoctorPatientPairsAfter
+     */
+    @Query("SELECT a.id, a.doctor.id, a.patient.id, a.appointmentTime FROM ArchivedAppointment a " +
+           "WHERE a.appointmentTime >= :from AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findDoctorPatientPairsAfter(@Param("from") LocalDateTime from,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    /**
+     * Delete up to limit of a doctor's archived appointments (idx_archive_doctor_time)
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "appointment_archive"))
+    @Query(value = "DELETE FROM appointment_archive WHERE doctor_id = :doctorId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByDoctor(@Param("doctorId") Long doctorId, @Param("limit") int limit);
+}
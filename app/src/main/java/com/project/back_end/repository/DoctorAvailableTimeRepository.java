@@ -0,0 +1,24 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.DoctorAvailableTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface DoctorAvailableTimeRepository extends JpaRepository<DoctorAvailableTime, Long> {
+    
+    /**
+     * Delete all of a doctor's availability rows in one statement
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "doctor_available_times"))
+    @Query(value = "DELETE FROM doctor_available_times WHERE doctor_id = :doctorId", nativeQuery = true)
+    int deleteByDoctor(@Param("doctorId") Long doctorId);
+}
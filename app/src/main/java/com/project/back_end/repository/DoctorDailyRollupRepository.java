@@ -0,0 +1,121 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.DoctorDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface DoctorDailyRollupRepository extends JpaRepository<DoctorDailyRollup, DoctorDailyRollup.Key> {
+    
+    /**
+     * Apply status transitions for the given appointments, already written with their new
+     * status: +1 to the current status column and -1 to fromStatus (null for new bookings).
+     * One statement for one appointment or a whole sweep chunk; rows are created on first
+     * touch with the doctor's offered minutes for that weekday.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "doctor_daily_rollup"))
+    @Query(value = "INSERT INTO doctor_daily_rollup (doctor_id, day, scheduled_count, completed_count, " +
+                   "cancelled_count, no_show_count, offered_minutes, updated_at) " +
+                   "SELECT a.doctor_id, DATE(a.appointment_time), " +
+                   "SUM(a.status = 'SCHEDULED') - CASE WHEN :fromStatus = 'SCHEDULED' THEN COUNT(*) ELSE 0 END, " +
+                   "SUM(a.status = 'COMPLETED') - CASE WHEN :fromStatus = 'COMPLETED' THEN COUNT(*) ELSE 0 END, " +
+                   "SUM(a.status = 'CANCELLED') - CASE WHEN :fromStatus = 'CANCELLED' THEN COUNT(*) ELSE 0 END, " +
+                   "SUM(a.status = 'NO_SHOW') - CASE WHEN :fromStatus = 'NO_SHOW' THEN COUNT(*) ELSE 0 END, " +
+                   "(SELECT COALESCE(SUM(TIME_TO_SEC(t.end_time) - TIME_TO_SEC(t.start_time)), 0) DIV 60 " +
+                   "FROM doctor_available_times t WHERE t.doctor_id = a.doctor_id " +
+                   "AND t.day_of_week = UPPER(DAYNAME(DATE(a.appointment_time))) AND COALESCE(t.is_active, 1) = 1), " +
+                   "NOW() " +
+                   "FROM appointment a WHERE a.id IN (:appointmentIds) " +
+                   "GROUP BY a.doctor_id, DATE(a.appointment_time) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "scheduled_count = scheduled_count + VALUES(scheduled_count), " +
+                   "completed_count = completed_count + VALUES(completed_count), " +
+                   "cancelled_count = cancelled_count + VALUES(cancelled_count), " +
+                   "no_show_count = no_show_count + VALUES(no_show_count), " +
+                   "updated_at = NOW()",
+           nativeQuery = true)
+    int applyTransitions(@Param("appointmentIds") Collection<Long> appointmentIds,
+                         @Param("fromStatus") String fromStatus);
+    
+    /**
+     * Create empty rows for every active doctor with availability on the day, so days without
+     * bookings still count towards offered minutes
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "doctor_daily_rollup"))
+    @Query(value = "INSERT IGNORE INTO doctor_daily_rollup (doctor_id, day, scheduled_count, completed_count, " +
+                   "cancelled_count, no_show_count, offered_minutes, updated_at) " +
+                   "SELECT t.doctor_id, :day, 0, 0, 0, 0, " +
+                   "SUM(TIME_TO_SEC(t.end_time) - TIME_TO_SEC(t.start_time)) DIV 60, NOW() " +
+                   "FROM doctor_available_times t JOIN doctor d ON d.id = t.doctor_id " +
+                   "WHERE t.day_of_week = UPPER(DAYNAME(:day)) AND COALESCE(t.is_active, 1) = 1 " +
+                   "AND d.is_active = TRUE " +
+                   "GROUP BY t.doctor_id",
+           nativeQuery = true)
+    int insertOfferedDay(@Param("day") LocalDate day);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "doctor_daily_rollup"))
+    @Query(value = "DELETE FROM doctor_daily_rollup WHERE day >= :from AND day <= :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "doctor_daily_rollup"))
+    @Query(value = "DELETE FROM doctor_daily_rollup WHERE doctor_id = :doctorId", nativeQuery = true)
+    int deleteByDoctor(@Param("doctorId") Long doctorId);
+    
+    /**
+     * Recount [from, to] from appointment history, hot and archived; run after deleteRange
+     * and insertOfferedDay
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "doctor_daily_rollup"))
+    @Query(value = "INSERT INTO doctor_daily_rollup (doctor_id, day, scheduled_count, completed_count, " +
+                   "cancelled_count, no_show_count, offered_minutes, updated_at) " +
+                   "SELECT a.doctor_id, DATE(a.appointment_time), " +
+                   "SUM(a.status = 'SCHEDULED'), SUM(a.status = 'COMPLETED'), " +
+                   "SUM(a.status = 'CANCELLED'), SUM(a.status = 'NO_SHOW'), 0, NOW() " +
+                   "FROM (SELECT doctor_id, appointment_time, status FROM appointment " +
+                   "WHERE appointment_time >= :from AND appointment_time < :toExclusive " +
+                   "UNION ALL " +
+                   "SELECT doctor_id, appointment_time, status FROM appointment_archive " +
+                   "WHERE appointment_time >= :from AND appointment_time < :toExclusive) a " +
+                   "GROUP BY a.doctor_id, DATE(a.appointment_time) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "scheduled_count = VALUES(scheduled_count), " +
+                   "completed_count = VALUES(completed_count), " +
+                   "cancelled_count = VALUES(cancelled_count), " +
+                   "no_show_count = VALUES(no_show_count), " +
+                   "updated_at = NOW()",
+           nativeQuery = true)
+    int recountRange(@Param("from") LocalDate from, @Param("toExclusive") LocalDate toExclusive);
+    
+    /**
+     * Per-day totals across doctors as (day, scheduled, completed, cancelled, noShow)
+     */
+    @Query("SELECT r.day, SUM(r.scheduledCount), SUM(r.completedCount), SUM(r.cancelledCount), SUM(r.noShowCount) " +
+           "FROM DoctorDailyRollup r WHERE r.day BETWEEN :from AND :to " +
+           "GROUP BY r.day ORDER BY r.day")
+    List<Object[]> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * Per-doctor totals as (doctorId, scheduled, completed, cancelled, noShow, offeredMinutes)
+     */
+    @Query("SELECT r.doctorId, SUM(r.scheduledCount), SUM(r.completedCount), SUM(r.cancelledCount), " +
+           "SUM(r.noShowCount), SUM(r.offeredMinutes) " +
+           "FROM DoctorDailyRollup r WHERE r.day BETWEEN :from AND :to " +
+           "GROUP BY r.doctorId ORDER BY r.doctorId")
+    List<Object[]> sumByDoctor(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,51 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.Doctor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+    
+    /**
+     * Find doctor by email, active or not
+     */
+    Optional<Doctor> findByEmail(String email);
+    
+    /**
+     * Find all doctors accepting appointments (idx_doctor_active_specialty)
+     */
+    List<Doctor> findByIsActiveTrue();
+    
+    /**
+     * Find active doctors whose specialty contains the given text (idx_doctor_active_specialty)
+     */
+    List<Doctor> findByIsActiveTrueAndSpecialtyContainingIgnoreCase(String specialty);
+    
+    /**
+     * Ids of doctors deactivated before the cutoff, oldest first (idx_doctor_active_deactivated)
+     */
+    @Query("SELECT d.id FROM Doctor d WHERE d.isActive = false AND d.deactivatedAt < :cutoff " +
+           "ORDER BY d.deactivatedAt")
+    List<Long> findPurgeCandidates(@Param("cutoff") LocalDateTime cutoff);
+    
+    /**
+     * Delete an inactive doctor's row once its children are gone. A plain DELETE rather than
+     * deleteById, so Hibernate does not load and cascade over the appointment collection.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "doctor"))
+    @Query(value = "DELETE FROM doctor WHERE id = :id AND is_active = FALSE", nativeQuery = true)
+    int deleteInactive(@Param("id") Long id);
+}
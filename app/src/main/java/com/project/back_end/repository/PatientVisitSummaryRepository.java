@@ -0,0 +1,119 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.PatientVisitSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface PatientVisitSummaryRepository extends JpaRepository<PatientVisitSummary, Long> {
+    
+    /**
+     * Record a completed visit, keeping the later of the stored and new visit times
+     */
+    @Modifying
+    @Query(value = "INSERT INTO patient_visit_summary (patient_id, last_visit_at, updated_at) " +
+                   "VALUES (:patientId, :visitAt, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "last_visit_at = GREATEST(COALESCE(last_visit_at, VALUES(last_visit_at)), VALUES(last_visit_at)), " +
+                   "updated_at = NOW()",
+           nativeQuery = true)
+    int upsertLastVisit(@Param("patientId") Long patientId, @Param("visitAt") LocalDateTime visitAt);
+    
+    /**
+     * Record a newly booked visit, keeping the earlier of the stored and new upcoming times.
+     * A stored time that is already in the past is replaced.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO patient_visit_summary (patient_id, next_visit_at, updated_at) " +
+                   "VALUES (:patientId, :visitAt, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "next_visit_at = CASE WHEN next_visit_at IS NULL OR next_visit_at < NOW() " +
+                   "OR VALUES(next_visit_at) < next_visit_at " +
+                   "THEN VALUES(next_visit_at) ELSE next_visit_at END, " +
+                   "updated_at = NOW()",
+           nativeQuery = true)
+    int upsertNextVisit(@Param("patientId") Long patientId, @Param("visitAt") LocalDateTime visitAt);
+    
+    /**
+     * Recompute the next visit from the patient's scheduled appointments (idx on appointment.patient_id)
+     * after one of them is cancelled or completed
+     */
+    @Modifying
+    @Query(value = "UPDATE patient_visit_summary s SET " +
+                   "s.next_visit_at = (SELECT MIN(a.appointment_time) FROM appointment a " +
+                   "WHERE a.patient_id = s.patient_id AND a.status = 'SCHEDULED' AND a.appointment_time > NOW()), " +
+                   "s.updated_at = NOW() " +
+                   "WHERE s.patient_id = :patientId",
+           nativeQuery = true)
+    int refreshNextVisit(@Param("patientId") Long patientId);
+    
+    /**
+     * Record completed visits for a chunk of appointments, one row per patient.
+     * The native-spaces hint keeps Hibernate from clearing every second-level cache region.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "patient_visit_summary"))
+    @Query(value = "INSERT INTO patient_visit_summary (patient_id, last_visit_at, updated_at) " +
+                   "SELECT a.patient_id, MAX(a.appointment_time), NOW() FROM appointment a " +
+                   "WHERE a.id IN (:appointmentIds) AND a.status = 'COMPLETED' " +
+                   "GROUP BY a.patient_id " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "last_visit_at = GREATEST(COALESCE(last_visit_at, VALUES(last_visit_at)), VALUES(last_visit_at)), " +
+                   "updated_at = NOW()",
+           nativeQuery = true)
+    int upsertLastVisits(@Param("appointmentIds") Collection<Long> appointmentIds);
+    
+    /**
+     * Recompute the next visit for several patients in one statement
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "patient_visit_summary"))
+    @Query(value = "UPDATE patient_visit_summary s SET " +
+                   "s.next_visit_at = (SELECT MIN(a.appointment_time) FROM appointment a " +
+                   "WHERE a.patient_id = s.patient_id AND a.status = 'SCHEDULED' AND a.appointment_time > NOW()), " +
+                   "s.updated_at = NOW() " +
+                   "WHERE s.patient_id IN (:patientIds)",
+           nativeQuery = true)
+    int refreshNextVisits(@Param("patientIds") Collection<Long> patientIds);
+    
+    /**
+     * Create an empty summary row for a new patient
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO patient_visit_summary (patient_id, updated_at) VALUES (:patientId, NOW())",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("patientId") Long patientId);
+    
+    /**
+     * Backfill summaries for patients with IDs in (afterId, upToId] from appointment history,
+     * including archived visits (only finished appointments are archived)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO patient_visit_summary (patient_id, last_visit_at, next_visit_at, updated_at) " +
+                   "SELECT p.id, " +
+                   "NULLIF(GREATEST(" +
+                   "COALESCE((SELECT MAX(a.appointment_time) FROM appointment a " +
+                   "WHERE a.patient_id = p.id AND a.status = 'COMPLETED'), '1000-01-01'), " +
+                   "COALESCE((SELECT MAX(r.appointment_time) FROM appointment_archive r " +
+                   "WHERE r.patient_id = p.id AND r.status = 'COMPLETED'), '1000-01-01')), '1000-01-01'), " +
+                   "(SELECT MIN(a.appointment_time) FROM appointment a " +
+                   "WHERE a.patient_id = p.id AND a.status = 'SCHEDULED' AND a.appointment_time > NOW()), " +
+                   "NOW() " +
+                   "FROM patient p WHERE p.id > :afterId AND p.id <= :upToId " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "last_visit_at = VALUES(last_visit_at), " +
+                   "next_visit_at = VALUES(next_visit_at), " +
+                   "updated_at = NOW()",
+           nativeQuery = true)
+    int backfillRange(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
+}
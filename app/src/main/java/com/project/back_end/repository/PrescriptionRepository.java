@@ -0,0 +1,19 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.Prescription;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Single-document lookups only; lists go through the keyset pages in PrescriptionQueries
+ */
+@Repository
+public interface PrescriptionRepository extends MongoRepository<Prescription, String> {
+    
+    /**
+     * Most recent prescription for a patient
+     */
+    Optional<Prescription> findFirstByPatientIdOrderByPrescriptionDateDesc(Long patientId);
+}
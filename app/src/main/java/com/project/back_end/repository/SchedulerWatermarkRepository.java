@@ -0,0 +1,28 @@
+package com.project.back_end.repository;
+
+import com.project.back_end.model.SchedulerWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface SchedulerWatermarkRepository extends JpaRepository<SchedulerWatermark, String> {
+    
+    /**
+     * Move a watermark to now, or one second past its current value if that is later, in one
+     * atomic statement; used as a change counter that never repeats a value
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "scheduler_watermark"))
+    @Query(value = "INSERT INTO scheduler_watermark (name, watermark, updated_at) VALUES (:name, NOW(), NOW()) " +
+                   "ON DUPLICATE KEY UPDATE watermark = GREATEST(NOW(), watermark + INTERVAL 1 SECOND), " +
+                   "updated_at = NOW()",
+           nativeQuery = true)
+    int advance(@Param("name") String name);
+}
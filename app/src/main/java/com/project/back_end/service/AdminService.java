@@ -1,12 +1,20 @@
 package com.project.back_end.service;
 
+import com.project.back_end.audit.AuditLogWriter;
 import com.project.back_end.model.Admin;
 import com.project.back_end.repository.AdminRepository;
 import com.project.back_end.dto.LoginDTO;
+import com.project.back_end.monitoring.ServiceMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 public class AdminService {
@@ -17,14 +25,64 @@ public class AdminService {
     @Autowired
     private TokenService tokenService;
     
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    
+    private final KnownValueFilter knownEmails;
+    private final KnownValueFilter knownUsernames;
+    
+    public AdminService(@Value("${clinic.registration.bloom-false-positive-rate:0.01}") double falsePositiveRate) {
+        this.knownEmails = new KnownValueFilter(falsePositiveRate);
+        this.knownUsernames = new KnownValueFilter(falsePositiveRate);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildRegistrationFilters() {
+        long count = adminRepository.count();
+        List<String> usernames = new ArrayList<>();
+        try (Stream<Object[]> rows = adminRepository.streamEmailsAndUsernames()) {
+            // Admins are few; collecting usernames lets both filters come from one pass
+            knownEmails.rebuild(count, rows.map(row -> {
+                usernames.add((String) row[1]);
+                return (String) row[0];
+            }));
+        }
+        knownUsernames.rebuild(count, usernames.stream());
+        serviceMetrics.registerCacheSize("admin.email.bloom", knownEmails::approximateSize);
+        serviceMetrics.registerCacheSize("admin.username.bloom", knownUsernames::approximateSize);
+    }
+    
+    /**
+     * The unique constraints on username and email are the authority. Existence queries
+     * only run when a Bloom filter says the value may be taken.
+     */
     public Admin createAdmin(Admin admin) {
-        if (adminRepository.existsByUsername(admin.getUsername())) {
+        if (knownUsernames.mightContain(admin.getUsername()) && adminRepository.existsByUsername(admin.getUsername())) {
             throw new RuntimeException("Username already exists");
         }
-        if (adminRepository.existsByEmail(admin.getEmail())) {
+        if (knownEmails.mightContain(admin.getEmail()) && adminRepository.existsByEmail(admin.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
-        return adminRepository.save(admin);
+        Admin saved;
+        try {
+            saved = adminRepository.save(admin);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent signup, or the filters have not been built yet
+            if (adminRepository.existsByUsername(admin.getUsername())) {
+                throw new RuntimeException("Username already exists");
+            }
+            if (adminRepository.existsByEmail(admin.getEmail())) {
+                throw new RuntimeException("Email already exists");
+            }
+            throw e;
+        }
+        knownUsernames.add(saved.getUsername());
+        knownEmails.add(saved.getEmail());
+        return saved;
     }
     
     public Map<String, Object> validateAdminLogin(LoginDTO loginDTO) {
@@ -32,6 +90,7 @@ public class AdminService {
         
         Optional<Admin> adminOpt = adminRepository.findByEmail(loginDTO.getEmail());
         if (adminOpt.isEmpty()) {
+            auditLogWriter.record("LOGIN_FAILED", null, "ADMIN", Map.of("reason", "UNKNOWN_EMAIL"));
             response.put("success", false);
             response.put("message", "Invalid email or password");
             return response;
@@ -39,12 +98,14 @@ public class AdminService {
         
         Admin admin = adminOpt.get();
         if (!admin.getPassword().equals(loginDTO.getPassword())) {
+            auditLogWriter.record("LOGIN_FAILED", admin.getId(), "ADMIN", Map.of("reason", "BAD_PASSWORD"));
             response.put("success", false);
             response.put("message", "Invalid email or password");
             return response;
         }
         
         String token = tokenService.generateTokenWithRole(admin.getEmail(), "ADMIN");
+        auditLogWriter.record("LOGIN_SUCCEEDED", admin.getId(), "ADMIN", Map.of());
         response.put("success", true);
         response.put("token", token);
         response.put("admin", admin);
@@ -0,0 +1,30 @@
+package com.project.back_end.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a patient's free-text allergies ("Penicillin; sulfa drugs, latex") into
+ * trimmed, lower-case tokens. Shared by the cohort index and the interaction checker
+ * so both read the allergies column the same way.
+ */
+public final class AllergyTokens {
+    
+    private AllergyTokens() {
+    }
+    
+    public static List<String> parse(String allergies) {
+        if (allergies == null || allergies.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : allergies.split("[,;/\\n]+")) {
+            String normalized = token.trim().toLowerCase(Locale.ROOT);
+            if (!normalized.isEmpty()) {
+                tokens.add(normalized);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,149 @@
+package com.project.back_end.service;
+
+import com.project.back_end.model.SchedulerWatermark;
+import com.project.back_end.repository.AppointmentRepository;
+import com.project.back_end.repository.SchedulerWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves finished appointments older than the horizon from appointment to
+ * appointment_archive, one chunk per transaction, so the hot table and its indexes
+ * only hold recent and upcoming visits.
+ *
+ * The archive watermark is raised to the cutoff before any rows move, so "rows before
+ * the watermark may be archived" always holds and readers consult the archive only for
+ * ranges that start before it.
+ */
+@Service
+public class AppointmentArchiveService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentArchiveService.class);
+    private static final String WATERMARK = "appointment-archive";
+    
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    
+    @Autowired
+    private SchedulerWatermarkRepository watermarkRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${clinic.archive.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${clinic.archive.horizon-months:24}")
+    private int horizonMonths;
+    
+    @Value("${clinic.archive.chunk-size:2000}")
+    private int chunkSize;
+    
+    // Pause between chunks so replicas and other writers keep up
+    @Value("${clinic.archive.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @Scheduled(cron = "${clinic.archive.cron:0 30 2 * * *}")
+    public void archiveScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            logger.warn("Appointment archiving failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Archive everything finished before now minus the horizon; returns rows moved
+     */
+    public long archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Appointment archiving is already running");
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusMonths(horizonMonths);
+            raiseWatermark(cutoff);
+            
+            long start = System.currentTimeMillis();
+            long moved = 0;
+            while (true) {
+                Integer chunk = transactionTemplate.execute(status -> {
+                    List<Long> ids = appointmentRepository.lockArchivableChunk(cutoff, chunkSize);
+                    if (ids.isEmpty()) {
+                        return 0;
+                    }
+                    appointmentRepository.copyToArchive(ids);
+                    return appointmentRepository.deleteByIds(ids);
+                });
+                if (chunk == null || chunk == 0) {
+                    break;
+                }
+                moved += chunk;
+                pause();
+            }
+            if (moved > 0) {
+                logger.info("Archived {} appointments before {} in {} ms",
+                    moved, cutoff, System.currentTimeMillis() - start);
+            }
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Whether archived rows can exist for appointments at or after the given time
+     */
+    public boolean mayBeArchived(LocalDateTime from) {
+        return archivedBefore().map(from::isBefore).orElse(false);
+    }
+    
+    /**
+     * Whether anything has ever been archived
+     */
+    public boolean hasArchive() {
+        return archivedBefore().isPresent();
+    }
+    
+    // One primary-key lookup; read every time so other instances' archiving is seen at once
+    private Optional<LocalDateTime> archivedBefore() {
+        return watermarkRepository.findById(WATERMARK).map(SchedulerWatermark::getWatermark);
+    }
+    
+    private void raiseWatermark(LocalDateTime cutoff) {
+        transactionTemplate.executeWithoutResult(status -> {
+            SchedulerWatermark watermark = watermarkRepository.findById(WATERMARK)
+                .orElseGet(() -> new SchedulerWatermark(WATERMARK, cutoff));
+            if (watermark.getWatermark().isBefore(cutoff)) {
+                watermark.setWatermark(cutoff);
+            }
+            watermarkRepository.save(watermark);
+        });
+    }
+    
+    private void pause() {
+        if (chunkPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Appointment archiving interrupted");
+        }
+    }
+}
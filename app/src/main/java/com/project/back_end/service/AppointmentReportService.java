@@ -0,0 +1,188 @@
+package com.project.back_end.service;
+
+import com.project.back_end.dto.DailyAppointmentReportDTO;
+import com.project.back_end.dto.DoctorUtilizationDTO;
+import com.project.back_end.dto.JobStatusDTO;
+import com.project.back_end.model.Appointment;
+import com.project.back_end.model.Doctor;
+import com.project.back_end.repository.DoctorDailyRollupRepository;
+import com.project.back_end.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Daily appointment and doctor utilization reports, read from doctor_daily_rollup.
+ * The rollup is kept current by the record methods, which join the transaction that
+ * changes the appointment, and can be rebuilt from appointment history by date range.
+ */
+@Service
+public class AppointmentReportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentReportService.class);
+    
+    // Every appointment occupies one slot (see DoctorService#getAvailableTimeSlotsForDoctor)
+    public static final int SLOT_MINUTES = 30;
+    public static final int MAX_REPORT_DAYS = 366;
+    
+    static final String REBUILD_JOB = "report-rollup-rebuild";
+    
+    @Autowired
+    private DoctorDailyRollupRepository rollupRepository;
+    
+    @Autowired
+    private DoctorRepository doctorRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MaintenanceJobs maintenanceJobs;
+    
+    @Value("${clinic.reports.rebuild-chunk-days:31}")
+    private int rebuildChunkDays;
+    
+    /**
+     * Count appointments that moved from previousStatus (null for a new booking) to their
+     * current status. Call after the status change is flushed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Long appointmentId, Appointment.AppointmentStatus previousStatus) {
+        recordTransitions(List.of(appointmentId), previousStatus);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitions(Collection<Long> appointmentIds, Appointment.AppointmentStatus previousStatus) {
+        if (!appointmentIds.isEmpty()) {
+            rollupRepository.applyTransitions(appointmentIds, previousStatus != null ? previousStatus.name() : null);
+        }
+    }
+    
+    /**
+     * Add today's offered minutes for doctors who may get no bookings at all
+     */
+    @Scheduled(cron = "${clinic.reports.offered-day-cron:0 5 0 * * *}")
+    public void recordOfferedToday() {
+        transactionTemplate.execute(status -> rollupRepository.insertOfferedDay(LocalDate.now()));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<DailyAppointmentReportDTO> getDailyReport(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        List<DailyAppointmentReportDTO> report = new ArrayList<>();
+        for (Object[] row : rollupRepository.sumByDay(from, to)) {
+            long scheduled = count(row[1]);
+            long completed = count(row[2]);
+            long cancelled = count(row[3]);
+            long noShow = count(row[4]);
+            report.add(new DailyAppointmentReportDTO((LocalDate) row[0], scheduled, completed, cancelled, noShow,
+                scheduled + completed + cancelled + noShow));
+        }
+        return report;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<DoctorUtilizationDTO> getDoctorUtilization(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        List<Object[]> rows = rollupRepository.sumByDoctor(from, to);
+        Map<Long, Doctor> doctors = doctorRepository.findAllById(
+                rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+        
+        List<DoctorUtilizationDTO> report = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long doctorId = (Long) row[0];
+            Doctor doctor = doctors.get(doctorId);
+            long scheduled = count(row[1]);
+            long completed = count(row[2]);
+            long cancelled = count(row[3]);
+            long noShow = count(row[4]);
+            long offeredMinutes = count(row[5]);
+            // Cancelled slots are free again; no-shows still took the slot
+            long bookedMinutes = (scheduled + completed + noShow) * SLOT_MINUTES;
+            report.add(new DoctorUtilizationDTO(doctorId,
+                doctor != null ? doctor.getName() : null,
+                doctor != null ? doctor.getSpecialty() : null,
+                scheduled, completed, cancelled, noShow, bookedMinutes, offeredMinutes,
+                offeredMinutes > 0 ? (double) bookedMinutes / offeredMinutes : null));
+        }
+        return report;
+    }
+    
+    /**
+     * Recompute the rollup for [from, to] from appointment history and current availability,
+     * one chunk of days per transaction. Returns the number of days rebuilt. Only runs as
+     * the REBUILD_JOB, which MaintenanceJobs keeps to one run at a time.
+     */
+    private long rebuild(LocalDate from, LocalDate to) {
+        long start = System.currentTimeMillis();
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(rebuildChunkDays)) {
+            LocalDate chunkFrom = chunkStart;
+            LocalDate chunkTo = chunkStart.plusDays(rebuildChunkDays - 1L);
+            LocalDate chunkEnd = chunkTo.isAfter(to) ? to : chunkTo;
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.deleteRange(chunkFrom, chunkEnd);
+                for (LocalDate day = chunkFrom; !day.isAfter(chunkEnd); day = day.plusDays(1)) {
+                    rollupRepository.insertOfferedDay(day);
+                }
+                rollupRepository.recountRange(chunkFrom, chunkEnd.plusDays(1));
+            });
+        }
+        logger.info("Rebuilt doctor rollup for {} to {} in {} ms", from, to, System.currentTimeMillis() - start);
+        return ChronoUnit.DAYS.between(from, to) + 1;
+    }
+    
+    /**
+     * Run rebuild in the background; the range is checked before the job starts.
+     * Poll rebuildStatus for the outcome.
+     */
+    public JobStatusDTO startRebuild(LocalDate from, LocalDate to) {
+        checkRebuildRange(from, to);
+        return maintenanceJobs.start(REBUILD_JOB, () -> Map.of(
+            "from", from.toString(),
+            "to", to.toString(),
+            "days", rebuild(from, to)));
+    }
+    
+    /**
+     * Latest rebuild run on this instance, or null if none has run
+     */
+    public JobStatusDTO rebuildStatus() {
+        return maintenanceJobs.status(REBUILD_JOB);
+    }
+    
+    private static void checkRebuildRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Rebuild range end must not be before its start");
+        }
+    }
+    
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Report range end must not be before its start");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_REPORT_DAYS) {
+            throw new IllegalArgumentException("Report range cannot exceed " + MAX_REPORT_DAYS + " days");
+        }
+    }
+    
+    private static long count(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+}
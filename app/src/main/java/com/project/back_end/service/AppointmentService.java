@@ -1,14 +1,22 @@
 package com.project.back_end.service;
 
+import com.project.back_end.audit.AuditLogWriter;
+import com.project.back_end.config.ReplicaLagGuard;
 import com.project.back_end.dto.AppointmentDTO;
 import com.project.back_end.dto.AppointmentBookingDTO;
 import com.project.back_end.dto.ApiResponseDTO;
 import com.project.back_end.model.Appointment;
+import com.project.back_end.model.ArchivedAppointment;
 import com.project.back_end.model.Doctor;
 import com.project.back_end.model.Patient;
 import com.project.back_end.repository.AppointmentRepository;
+import com.project.back_end.repository.ArchivedAppointmentRepository;
 import com.project.back_end.repository.DoctorRepository;
 import com.project.back_end.repository.PatientRepository;
+import com.project.back_end.monitoring.ClinicEvents;
+import com.project.back_end.monitoring.ServiceMetrics;
+import com.project.back_end.outbox.AppointmentChangeEvent;
+import com.project.back_end.outbox.AppointmentOutbox;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,7 +24,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,16 +44,56 @@ public class AppointmentService {
     @Autowired
     private PatientRepository patientRepository;
     
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+    
+    @Autowired
+    private PatientVisitSummaryService visitSummaryService;
+    
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    
+    @Autowired
+    private AppointmentOutbox appointmentOutbox;
+    
+    @Autowired
+    private AppointmentReportService reportService;
+    
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+    
+    @Autowired
+    private AppointmentArchiveService archiveService;
+    
     /**
      * Book a new appointment
      */
     public ApiResponseDTO<AppointmentDTO> bookAppointment(AppointmentBookingDTO bookingDTO) {
+        ClinicEvents.AppointmentBooking event = new ClinicEvents.AppointmentBooking();
+        event.start();
+        boolean success = false;
+        try {
+            ApiResponseDTO<AppointmentDTO> response = doBookAppointment(bookingDTO);
+            success = response.isSuccess();
+            return response;
+        } finally {
+            event.finish(bookingDTO.getDoctorId(), 1, success);
+        }
+    }
+    
+    private ApiResponseDTO<AppointmentDTO> doBookAppointment(AppointmentBookingDTO bookingDTO) {
         try {
             // Validate doctor exists
             Optional<Doctor> doctorOpt = doctorRepository.findById(bookingDTO.getDoctorId());
             if (doctorOpt.isEmpty()) {
                 return new ApiResponseDTO<>(false, "Doctor not found", null);
             }
+            if (!Boolean.TRUE.equals(doctorOpt.get().getIsActive())) {
+                return new ApiResponseDTO<>(false, "Doctor is not accepting appointments", null);
+            }
             
             // Validate patient exists
             Optional<Patient> patientOpt = patientRepository.findById(bookingDTO.getPatientId());
@@ -67,21 +118,38 @@ public class AppointmentService {
             appointment.setStatus(Appointment.AppointmentStatus.SCHEDULED);
             
             Appointment savedAppointment = appointmentRepository.save(appointment);
+            // Kept inline rather than behind the outbox: the summary and rollup are read models
+            // that commit with the booking, the replica guard must know about the write before
+            // the response goes out, and the audit entry needs the request context and is only
+            // queued to a background writer after commit
+            visitSummaryService.recordBooking(patient.getId(), savedAppointment.getAppointmentTime());
+            reportService.recordTransition(savedAppointment.getId(), null);
+            appointmentOutbox.append(AppointmentChangeEvent.BOOKED, savedAppointment);
+            replicaLagGuard.recordWrite(doctorKey(doctor.getId()), patientKey(patient.getId()));
+            auditLogWriter.record("APPOINTMENT_BOOKED", patient.getId(), "PATIENT", Map.of(
+                "appointmentId", savedAppointment.getId(),
+                "doctorId", doctor.getId(),
+                "appointmentTime", savedAppointment.getAppointmentTime().toString()));
             
             // Convert to DTO
             AppointmentDTO appointmentDTO = convertToDTO(savedAppointment);
             
             return new ApiResponseDTO<>(true, "Appointment booked successfully", appointmentDTO);
             
-        } catch (Exception e) {
-            return new ApiResponseDTO<>(false, "Error booking appointment: " + e.getMessage(), null);
+        } catch (RuntimeException e) {
+            // Rethrown: the summary and rollup writes join this transaction, so once one of them
+            // fails it is rollback-only and must not be committed as an ordinary failure response
+            serviceMetrics.recordError(AppointmentService.class, "bookAppointment", e);
+            throw e;
         }
     }
     
     /**
      * Get appointments for a doctor on a specific date
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getAppointmentsForDoctorOnDate(Long doctorId, LocalDate date) {
+        replicaLagGuard.pinPrimaryIfRecentlyWritten(doctorKey(doctorId));
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
         
@@ -89,39 +157,69 @@ public class AppointmentService {
             .findByDoctorIdAndAppointmentTimeBetweenOrderByAppointmentTime(
                 doctorId, startOfDay, endOfDay);
         
-        return appointments.stream()
+        List<AppointmentDTO> dtos = appointments.stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
+        if (archiveService.mayBeArchived(startOfDay)) {
+            archivedAppointmentRepository
+                .findByDoctorIdAndAppointmentTimeBetweenOrderByAppointmentTime(doctorId, startOfDay, endOfDay)
+                .forEach(archived -> dtos.add(convertToDTO(archived)));
+            dtos.sort(Comparator.comparing(AppointmentDTO::getAppointmentTime));
+        }
+        return dtos;
     }
     
     /**
      * Get all appointments for a doctor
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getAppointmentsForDoctor(Long doctorId) {
+        replicaLagGuard.pinPrimaryIfRecentlyWritten(doctorKey(doctorId));
         List<Appointment> appointments = appointmentRepository
             .findByDoctorIdOrderByAppointmentTimeDesc(doctorId);
         
-        return appointments.stream()
+        List<AppointmentDTO> dtos = appointments.stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
+        if (archiveService.hasArchive()) {
+            return withArchived(dtos, archivedAppointmentRepository.findByDoctorIdOrderByAppointmentTimeDesc(doctorId));
+        }
+        return dtos;
+    }
+    
+    /**
+     * Whether the doctor has treated the patient, in live or archived appointments
+     */
+    @Transactional(readOnly = true)
+    public boolean isTreatingDoctor(Long doctorId, Long patientId) {
+        return appointmentRepository.existsByDoctorIdAndPatientId(doctorId, patientId)
+            || archivedAppointmentRepository.existsByDoctorIdAndPatientId(doctorId, patientId);
     }
     
     /**
      * Get all appointments for a patient
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getAppointmentsForPatient(Long patientId) {
+        replicaLagGuard.pinPrimaryIfRecentlyWritten(patientKey(patientId));
         List<Appointment> appointments = appointmentRepository
             .findByPatientIdOrderByAppointmentTimeDesc(patientId);
         
-        return appointments.stream()
+        List<AppointmentDTO> dtos = appointments.stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
+        if (archiveService.hasArchive()) {
+            return withArchived(dtos, archivedAppointmentRepository.findByPatientIdOrderByAppointmentTimeDesc(patientId));
+        }
+        return dtos;
     }
     
     /**
      * Get upcoming appointments for a patient
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getUpcomingAppointmentsForPatient(Long patientId) {
+        replicaLagGuard.pinPrimaryIfRecentlyWritten(patientKey(patientId));
         LocalDateTime now = LocalDateTime.now();
         List<Appointment> appointments = appointmentRepository
             .findByPatientIdAndAppointmentTimeAfterAndStatusOrderByAppointmentTime(
@@ -135,7 +233,9 @@ public class AppointmentService {
     /**
      * Get upcoming appointments for a doctor
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getUpcomingAppointmentsForDoctor(Long doctorId) {
+        replicaLagGuard.pinPrimaryIfRecentlyWritten(doctorKey(doctorId));
         LocalDateTime now = LocalDateTime.now();
         List<Appointment> appointments = appointmentRepository
             .findByDoctorIdAndAppointmentTimeAfterAndStatusOrderByAppointmentTime(
@@ -150,6 +250,19 @@ public class AppointmentService {
      * Cancel an appointment
      */
     public ApiResponseDTO<AppointmentDTO> cancelAppointment(Long appointmentId, String userEmail, String userRole) {
+        ClinicEvents.AppointmentCancellation event = new ClinicEvents.AppointmentCancellation();
+        event.start();
+        ApiResponseDTO<AppointmentDTO> response = null;
+        try {
+            response = doCancelAppointment(appointmentId, userEmail, userRole);
+            return response;
+        } finally {
+            boolean success = response != null && response.isSuccess();
+            event.finish(success ? response.getData().getDoctorId() : null, 1, success);
+        }
+    }
+    
+    private ApiResponseDTO<AppointmentDTO> doCancelAppointment(Long appointmentId, String userEmail, String userRole) {
         try {
             Optional<Appointment> appointmentOpt = appointmentRepository.findById(appointmentId);
             if (appointmentOpt.isEmpty()) {
@@ -170,14 +283,26 @@ public class AppointmentService {
                 return new ApiResponseDTO<>(false, "This appointment cannot be cancelled", null);
             }
             
+            Appointment.AppointmentStatus previousStatus = appointment.getStatus();
             appointment.setStatus(Appointment.AppointmentStatus.CANCELLED);
-            Appointment savedAppointment = appointmentRepository.save(appointment);
+            Appointment savedAppointment = appointmentRepository.saveAndFlush(appointment);
+            visitSummaryService.recordCancellation(appointment.getPatient().getId());
+            reportService.recordTransition(appointmentId, previousStatus);
+            appointmentOutbox.append(AppointmentChangeEvent.CANCELLED, savedAppointment);
+            replicaLagGuard.recordWrite(doctorKey(appointment.getDoctor().getId()),
+                patientKey(appointment.getPatient().getId()));
+            auditLogWriter.record("APPOINTMENT_CANCELLED", null, userRole, Map.of(
+                "appointmentId", appointmentId,
+                "patientId", appointment.getPatient().getId(),
+                "doctorId", appointment.getDoctor().getId()));
             
             AppointmentDTO appointmentDTO = convertToDTO(savedAppointment);
             return new ApiResponseDTO<>(true, "Appointment cancelled successfully", appointmentDTO);
             
-        } catch (Exception e) {
-            return new ApiResponseDTO<>(false, "Error cancelling appointment: " + e.getMessage(), null);
+        } catch (RuntimeException e) {
+            // Rethrown for the same reason as in doBookAppointment
+            serviceMetrics.recordError(AppointmentService.class, "cancelAppointment", e);
+            throw e;
         }
     }
     
@@ -192,16 +317,28 @@ public class AppointmentService {
             }
             
             Appointment appointment = appointmentOpt.get();
+            Appointment.AppointmentStatus previousStatus = appointment.getStatus();
             appointment.setStatus(Appointment.AppointmentStatus.COMPLETED);
             appointment.setNotes(notes);
             
-            Appointment savedAppointment = appointmentRepository.save(appointment);
+            // Flush first so the next-visit refresh no longer sees this appointment as scheduled
+            Appointment savedAppointment = appointmentRepository.saveAndFlush(appointment);
+            visitSummaryService.recordCompletion(appointment.getPatient().getId(), appointment.getAppointmentTime());
+            reportService.recordTransition(appointmentId, previousStatus);
+            appointmentOutbox.append(AppointmentChangeEvent.COMPLETED, savedAppointment);
+            replicaLagGuard.recordWrite(doctorKey(appointment.getDoctor().getId()),
+                patientKey(appointment.getPatient().getId()));
+            auditLogWriter.record("APPOINTMENT_COMPLETED", appointment.getDoctor().getId(), "DOCTOR", Map.of(
+                "appointmentId", appointmentId,
+                "patientId", appointment.getPatient().getId()));
             AppointmentDTO appointmentDTO = convertToDTO(savedAppointment);
             
             return new ApiResponseDTO<>(true, "Appointment marked as completed", appointmentDTO);
             
-        } catch (Exception e) {
-            return new ApiResponseDTO<>(false, "Error completing appointment: " + e.getMessage(), null);
+        } catch (RuntimeException e) {
+            // Rethrown for the same reason as in doBookAppointment
+            serviceMetrics.recordError(AppointmentService.class, "completeAppointment", e);
+            throw e;
         }
     }
     
@@ -223,9 +360,35 @@ public class AppointmentService {
     /**
      * Get appointment by ID
      */
+    @Transactional(readOnly = true)
     public AppointmentDTO getAppointmentById(Long appointmentId) {
         Optional<Appointment> appointmentOpt = appointmentRepository.findById(appointmentId);
-        return appointmentOpt.map(this::convertToDTO).orElse(null);
+        if (appointmentOpt.isPresent()) {
+            return convertToDTO(appointmentOpt.get());
+        }
+        return archivedAppointmentRepository.findById(appointmentId).map(this::convertToDTO).orElse(null);
+    }
+    
+    /**
+     * Merge archived appointments into a newest-first list
+     */
+    private List<AppointmentDTO> withArchived(List<AppointmentDTO> hot, List<ArchivedAppointment> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<AppointmentDTO> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        archived.forEach(appointment -> merged.add(convertToDTO(appointment)));
+        merged.sort(Comparator.comparing(AppointmentDTO::getAppointmentTime).reversed());
+        return merged;
+    }
+    
+    private static String doctorKey(Long doctorId) {
+        return "doctor:" + doctorId;
+    }
+    
+    private static String patientKey(Long patientId) {
+        return "patient:" + patientId;
     }
     
     /**
@@ -258,4 +421,29 @@ public class AppointmentService {
         
         return dto;
     }
+    
+    /**
+     * Convert an archived appointment to the same DTO
+     */
+    private AppointmentDTO convertToDTO(ArchivedAppointment appointment) {
+        AppointmentDTO dto = new AppointmentDTO();
+        dto.setId(appointment.getId());
+        dto.setAppointmentTime(appointment.getAppointmentTime());
+        dto.setStatus(appointment.getStatus().toString());
+        dto.setReason(appointment.getReason());
+        dto.setNotes(appointment.getNotes());
+        
+        dto.setPatientId(appointment.getPatient().getId());
+        dto.setPatientName(appointment.getPatient().getName());
+        dto.setPatientEmail(appointment.getPatient().getEmail());
+        
+        dto.setDoctorId(appointment.getDoctor().getId());
+        dto.setDoctorName(appointment.getDoctor().getName());
+        dto.setDoctorSpecialty(appointment.getDoctor().getSpecialty());
+        
+        dto.setCreatedAt(appointment.getCreatedAt());
+        dto.setUpdatedAt(appointment.getUpdatedAt());
+        
+        return dto;
+    }
 }
@@ -0,0 +1,210 @@
+package com.project.back_end.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.audit.AuditLogWriter;
+import com.project.back_end.config.ReplicaLagGuard;
+import com.project.back_end.model.Appointment;
+import com.project.back_end.outbox.AppointmentChangeEvent;
+import com.project.back_end.outbox.AppointmentOutbox;
+import com.project.back_end.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies status transitions to many scheduled appointments at once: the periodic
+ * no-show sweep, end-of-day completion, and cancelling a deactivated doctor's
+ * upcoming appointments. Each chunk is one transaction that locks
+ * the chunk's rows, changes them with a single UPDATE, and writes the visit summary,
+ * outbox, and audit side effects once for the whole chunk instead of once per row.
+ *
+ * No-shows are only recorded for days that have closed, so end-of-day completion always
+ * finds the whole day still scheduled. Sweeps over different scopes may run together:
+ * each chunk locks its rows and only changes those still scheduled.
+ */
+@Service
+public class AppointmentSweepService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentSweepService.class);
+    
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    
+    @Autowired
+    private PatientVisitSummaryService visitSummaryService;
+    
+    @Autowired
+    private AppointmentReportService reportService;
+    
+    @Autowired
+    private AppointmentOutbox appointmentOutbox;
+    
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${clinic.sweeps.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Value("${clinic.sweeps.no-show-enabled:true}")
+    private boolean noShowSweepEnabled;
+    
+    @Value("${clinic.sweeps.no-show-grace-minutes:60}")
+    private long noShowGraceMinutes;
+    
+    // Scopes with a sweep in progress, so the same sweep is never started twice at once
+    private final Set<String> runningScopes = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Periodically mark appointments left scheduled on days that closed at least
+     * no-show-grace-minutes ago as no-shows. The grace leaves time after midnight for
+     * end-of-day completion of the previous day.
+     */
+    @Scheduled(cron = "${clinic.sweeps.no-show-cron:0 10 * * * *}")
+    public void sweepNoShows() {
+        if (!noShowSweepEnabled) {
+            return;
+        }
+        try {
+            markNoShows(LocalDateTime.now().minusMinutes(noShowGraceMinutes).toLocalDate().atStartOfDay());
+        } catch (RuntimeException e) {
+            logger.warn("No-show sweep failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Mark every appointment scheduled before the cutoff as NO_SHOW; returns rows changed.
+     * The cutoff is capped at the start of today, so an open day is never swept.
+     */
+    public int markNoShows(LocalDateTime before) {
+        LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+        LocalDateTime cutoff = before.isAfter(startOfToday) ? startOfToday : before;
+        return sweep("no-shows", LocalDateTime.of(1970, 1, 1, 0, 0), cutoff, null,
+            Appointment.AppointmentStatus.NO_SHOW, "SYSTEM");
+    }
+    
+    /**
+     * Complete every scheduled appointment on a date, for one doctor or all when doctorId is null
+     */
+    public int completeDay(LocalDate date, Long doctorId) {
+        if (date.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Appointments on a future date cannot be completed");
+        }
+        return sweep("complete:" + date + ":" + doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+            doctorId, Appointment.AppointmentStatus.COMPLETED, "ADMIN");
+    }
+    
+    /**
+     * Cancel every upcoming scheduled appointment of a doctor; returns rows changed
+     */
+    public int cancelUpcoming(Long doctorId) {
+        return sweep("cancel:" + doctorId, LocalDateTime.now(), LocalDateTime.of(9999, 1, 1, 0, 0), doctorId,
+            Appointment.AppointmentStatus.CANCELLED, "ADMIN");
+    }
+    
+    private int sweep(String scope, LocalDateTime from, LocalDateTime to, Long doctorId,
+                      Appointment.AppointmentStatus status, String actor) {
+        if (!runningScopes.add(scope)) {
+            throw new IllegalStateException("This appointment status sweep is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int total = 0;
+            int chunks = 0;
+            while (true) {
+                Integer updated = transactionTemplate.execute(tx -> sweepChunk(from, to, doctorId, status, actor));
+                if (updated == null || updated == 0) {
+                    break;
+                }
+                total += updated;
+                chunks++;
+            }
+            if (total > 0) {
+                logger.info("Marked {} appointments {} in {} chunks ({} ms)",
+                    total, status, chunks, System.currentTimeMillis() - start);
+            }
+            return total;
+        } finally {
+            runningScopes.remove(scope);
+        }
+    }
+    
+    private int sweepChunk(LocalDateTime from, LocalDateTime to, Long doctorId,
+                           Appointment.AppointmentStatus status, String actor) {
+        List<Object[]> rows = appointmentRepository.lockScheduledChunk(from, to, doctorId, chunkSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        List<Long> appointmentIds = new ArrayList<>(rows.size());
+        Set<Long> patientIds = new HashSet<>();
+        // Ascending doctor id, the order AppointmentOutbox needs to take its per-doctor locks in
+        Map<Long, List<Long>> idsByDoctor = new TreeMap<>();
+        for (Object[] row : rows) {
+            Long appointmentId = ((Number) row[0]).longValue();
+            Long patientId = ((Number) row[1]).longValue();
+            Long rowDoctorId = ((Number) row[2]).longValue();
+            appointmentIds.add(appointmentId);
+            patientIds.add(patientId);
+            idsByDoctor.computeIfAbsent(rowDoctorId, id -> new ArrayList<>()).add(appointmentId);
+        }
+        
+        // Rows are locked, so every selected appointment is still scheduled here
+        int updated = appointmentRepository.updateScheduledStatus(appointmentIds, status, LocalDateTime.now());
+        
+        reportService.recordTransitions(appointmentIds, Appointment.AppointmentStatus.SCHEDULED);
+        if (status == Appointment.AppointmentStatus.COMPLETED) {
+            visitSummaryService.recordCompletions(appointmentIds, patientIds);
+        } else if (status == Appointment.AppointmentStatus.CANCELLED) {
+            visitSummaryService.recordCancellations(patientIds);
+        }
+        for (Map.Entry<Long, List<Long>> entry : idsByDoctor.entrySet()) {
+            appointmentOutbox.appendForDoctor(AppointmentChangeEvent.BULK_STATUS_CHANGED, entry.getKey(),
+                payload(status, entry.getValue()));
+        }
+        
+        List<String> keys = new ArrayList<>(idsByDoctor.size() + patientIds.size());
+        idsByDoctor.keySet().forEach(id -> keys.add("doctor:" + id));
+        patientIds.forEach(id -> keys.add("patient:" + id));
+        replicaLagGuard.recordWrite(keys.toArray(new String[0]));
+        
+        auditLogWriter.record("APPOINTMENTS_STATUS_SWEEP", null, actor, Map.of(
+            "status", status.name(),
+            "appointments", updated,
+            "doctors", idsByDoctor.size()));
+        return updated;
+    }
+    
+    private String payload(Appointment.AppointmentStatus status, List<Long> appointmentIds) {
+        try {
+            return objectMapper.writeValueAsString(Map.of(
+                "status", status.name(),
+                "appointmentIds", appointmentIds));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize sweep event", e);
+        }
+    }
+}
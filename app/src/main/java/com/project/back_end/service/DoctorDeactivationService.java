@@ -0,0 +1,206 @@
+package com.project.back_end.service;
+
+import com.project.back_end.audit.AuditLogWriter;
+import com.project.back_end.config.ReplicaLagGuard;
+import com.project.back_end.dto.DoctorDeactivationDTO;
+import com.project.back_end.model.Doctor;
+import com.project.back_end.repository.AppointmentRepository;
+import com.project.back_end.repository.ArchivedAppointmentRepository;
+import com.project.back_end.repository.DoctorAvailableTimeRepository;
+import com.project.back_end.repository.DoctorDailyRollupRepository;
+import com.project.back_end.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Retires doctors without letting Hibernate cascade over their history. Deactivation flips
+ * the indexed is_active flag and cancels upcoming appointments with the chunked sweep; the
+ * purge later removes a long-inactive doctor with set-based deletes, children first, each
+ * chunk in its own short transaction. Prescriptions live in MongoDB and are kept.
+ */
+@Service
+public class DoctorDeactivationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DoctorDeactivationService.class);
+    
+    @Autowired
+    private DoctorService doctorService;
+    
+    @Autowired
+    private DoctorRepository doctorRepository;
+    
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+    
+    @Autowired
+    private DoctorAvailableTimeRepository availableTimeRepository;
+    
+    @Autowired
+    private DoctorDailyRollupRepository rollupRepository;
+    
+    @Autowired
+    private AppointmentSweepService sweepService;
+    
+    @Autowired
+    private DoctorDirectoryVersion directoryVersion;
+    
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${clinic.doctors.purge-enabled:false}")
+    private boolean purgeEnabled;
+    
+    @Value("${clinic.doctors.purge-after-days:365}")
+    private long purgeAfterDays;
+    
+    @Value("${clinic.doctors.purge-chunk-size:2000}")
+    private int chunkSize;
+    
+    @Value("${clinic.doctors.purge-chunk-pause-ms:50}")
+    private long chunkPauseMs;
+    
+    private final AtomicBoolean purging = new AtomicBoolean();
+    
+    /**
+     * Deactivate a doctor and cancel their upcoming appointments; null if the doctor does
+     * not exist. If the cancellation fails, the doctor stays deactivated and
+     * retryPendingCancellations finishes it. Safe to repeat.
+     */
+    public DoctorDeactivationDTO deactivate(Long doctorId) {
+        Boolean found = transactionTemplate.execute(status -> doctorService.deactivateDoctor(doctorId));
+        if (!Boolean.TRUE.equals(found)) {
+            return null;
+        }
+        // Bookings check the flag, so once it is committed this catches every remaining one
+        int cancelled = 0;
+        boolean pending = false;
+        try {
+            cancelled = sweepService.cancelUpcoming(doctorId);
+        } catch (RuntimeException e) {
+            pending = true;
+            logger.warn("Cancelling appointments of deactivated doctor {} failed, will retry: {}",
+                doctorId, e.getMessage());
+        }
+        auditLogWriter.record("DOCTOR_DEACTIVATED", null, "ADMIN", Map.of(
+            "doctorId", doctorId,
+            "cancelledAppointments", cancelled,
+            "cancellationPending", pending));
+        return new DoctorDeactivationDTO(doctorId, cancelled, pending);
+    }
+    
+    /**
+     * Finish cancellations for deactivated doctors that still have upcoming appointments.
+     * The pending work is read from the tables, so it also survives a restart.
+     */
+    @Scheduled(fixedDelayString = "${clinic.doctors.cancel-retry-interval-ms:300000}")
+    public void retryPendingCancellations() {
+        for (Long doctorId : appointmentRepository.findInactiveDoctorsWithScheduled(LocalDateTime.now())) {
+            try {
+                int cancelled = sweepService.cancelUpcoming(doctorId);
+                logger.info("Cancelled {} remaining appointments of deactivated doctor {}", cancelled, doctorId);
+            } catch (RuntimeException e) {
+                logger.warn("Cancelling appointments of deactivated doctor {} failed: {}", doctorId, e.getMessage());
+            }
+        }
+    }
+    
+    @Scheduled(cron = "${clinic.doctors.purge-cron:0 0 3 * * *}")
+    public void purgeScheduled() {
+        if (!purgeEnabled) {
+            return;
+        }
+        List<Long> doctorIds = doctorRepository.findPurgeCandidates(LocalDateTime.now().minusDays(purgeAfterDays));
+        for (Long doctorId : doctorIds) {
+            try {
+                purge(doctorId);
+            } catch (RuntimeException e) {
+                logger.warn("Purging doctor {} failed: {}", doctorId, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Permanently delete a deactivated doctor with their availability, rollups and
+     * appointments, hot and archived; returns the number of appointments deleted
+     */
+    public long purge(Long doctorId) {
+        Doctor doctor = doctorRepository.findById(doctorId)
+            .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        if (Boolean.TRUE.equals(doctor.getIsActive())) {
+            throw new RuntimeException("Only deactivated doctors can be purged");
+        }
+        if (!purging.compareAndSet(false, true)) {
+            throw new RuntimeException("A doctor purge is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long deleted = deleteInChunks(() -> archivedAppointmentRepository.deleteChunkByDoctor(doctorId, chunkSize));
+            deleted += deleteInChunks(() -> appointmentRepository.deleteChunkByDoctor(doctorId, chunkSize));
+            
+            // Whatever the archive job moved meanwhile goes with the doctor row (ON DELETE CASCADE)
+            Integer removed = transactionTemplate.execute(status -> {
+                rollupRepository.deleteByDoctor(doctorId);
+                availableTimeRepository.deleteByDoctor(doctorId);
+                int rows = doctorRepository.deleteInactive(doctorId);
+                directoryVersion.advance();
+                return rows;
+            });
+            if (removed == null || removed == 0) {
+                throw new RuntimeException("Doctor was removed during the purge");
+            }
+            replicaLagGuard.recordWrite("doctor:" + doctorId);
+            auditLogWriter.record("DOCTOR_PURGED", null, "SYSTEM", Map.of(
+                "doctorId", doctorId,
+                "deletedAppointments", deleted));
+            logger.info("Purged doctor {} with {} appointments in {} ms",
+                doctorId, deleted, System.currentTimeMillis() - start);
+            return deleted;
+        } finally {
+            purging.set(false);
+        }
+    }
+    
+    private long deleteInChunks(IntSupplier deleteChunk) {
+        long total = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> deleteChunk.getAsInt());
+            if (chunk == null || chunk == 0) {
+                return total;
+            }
+            total += chunk;
+            pause();
+        }
+    }
+    
+    private void pause() {
+        if (chunkPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Doctor purge interrupted");
+        }
+    }
+}
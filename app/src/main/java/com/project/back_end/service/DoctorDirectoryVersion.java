@@ -0,0 +1,155 @@
+package com.project.back_end.service;
+
+import com.project.back_end.config.ReplicaLagGuard;
+import com.project.back_end.model.SchedulerWatermark;
+import com.project.back_end.repository.SchedulerWatermarkRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
+
+/**
+ * Change counter for the doctor directory, behind the ETags of the doctor GET endpoints.
+ * Every write that changes what those endpoints return advances it in the same transaction.
+ * The counter is a scheduler watermark so all instances share it; each instance re-reads it
+ * at most once per clinic.doctors.etag-refresh-ms, and sees its own writes at once.
+ * Responses take their ETag from read, which pairs the version with the body it was read with.
+ */
+@Service
+public class DoctorDirectoryVersion {
+    
+    static final String WATERMARK = "doctor-directory";
+    
+    @Autowired
+    private SchedulerWatermarkRepository watermarkRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${clinic.doctors.etag-refresh-ms:1000}")
+    private long refreshMs;
+    
+    private volatile CachedVersion cached;
+    
+    /**
+     * Record a directory change; the new version is visible once the transaction commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void advance() {
+        watermarkRepository.advance(WATERMARK);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cached = null;
+            }
+        });
+    }
+    
+    /**
+     * Strong ETag for the current directory version, e.g. "doctors-1718000000"
+     */
+    public String currentETag() {
+        CachedVersion current = cached;
+        long now = System.currentTimeMillis();
+        if (current == null || now - current.readAt > refreshMs) {
+            current = new CachedVersion(readETag(), now);
+            cached = current;
+        }
+        return current.etag;
+    }
+    
+    /**
+     * Read a directory body together with the ETag it belongs to. The version is the first
+     * statement of the read-only transaction, so it comes from the same connection and snapshot
+     * as the body: a lagging replica answers with its old version and its old body. The
+     * second-level cache is bypassed because writes on other instances never evict it here.
+     * Keys written within the lag window pin the read to the primary, as in the services.
+     */
+    @Transactional(readOnly = true)
+    public <T> Versioned<T> read(Supplier<T> body, String... pinKeys) {
+        replicaLagGuard.pinPrimaryIfRecentlyWritten(pinKeys);
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.REFRESH);
+        String etag = loadETag();
+        return new Versioned<>(etag, body.get());
+    }
+    
+    /**
+     * Whether an If-None-Match header names the given ETag; weak and list forms are accepted
+     */
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Read-write template so the read goes to the primary and never sees a lagging replica
+    private String readETag() {
+        return transactionTemplate.execute(status -> loadETag());
+    }
+    
+    private String loadETag() {
+        long version = watermarkRepository.findById(WATERMARK)
+            .map(SchedulerWatermark::getWatermark)
+            .map(watermark -> watermark.toEpochSecond(ZoneOffset.UTC))
+            .orElse(0L);
+        return "\"doctors-" + version + "\"";
+    }
+    
+    /**
+     * A directory body and the ETag of the version it was read at
+     */
+    public static final class Versioned<T> {
+        private final String etag;
+        private final T body;
+        
+        private Versioned(String etag, T body) {
+            this.etag = etag;
+            this.body = body;
+        }
+        
+        public String getEtag() {
+            return etag;
+        }
+        
+        public T getBody() {
+            return body;
+        }
+    }
+    
+    private static final class CachedVersion {
+        private final String etag;
+        private final long readAt;
+        
+        private CachedVersion(String etag, long readAt) {
+            this.etag = etag;
+            this.readAt = readAt;
+        }
+    }
+}
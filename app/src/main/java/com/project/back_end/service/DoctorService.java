@@ -1,5 +1,7 @@
 package com.project.back_end.service;
 
+import com.project.back_end.analytics.DemandMetricsService;
+import com.project.back_end.config.ReplicaLagGuard;
 import com.project.back_end.dto.DoctorDTO;
 import com.project.back_end.dto.DoctorAvailabilityDTO;
 import com.project.back_end.dto.ApiResponseDTO;
@@ -9,6 +11,13 @@ import com.project.back_end.model.Appointment;
 import com.project.back_end.repository.DoctorRepository;
 import com.project.back_end.repository.DoctorAvailableTimeRepository;
 import com.project.back_end.repository.AppointmentRepository;
+import com.project.back_end.monitoring.ClinicEvents;
+import com.project.back_end.monitoring.ServiceMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -27,6 +36,8 @@ import java.util.ArrayList;
 @Transactional
 public class DoctorService {
     
+    private static final Logger logger = LoggerFactory.getLogger(DoctorService.class);
+    
     @Autowired
     private DoctorRepository doctorRepository;
     
@@ -42,17 +53,42 @@ public class DoctorService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+    
+    @Autowired
+    private DemandMetricsService demandMetricsService;
+    
+    @Autowired
+    private DoctorDirectoryVersion directoryVersion;
+    
     /**
      * Get available time slots for a doctor on a given date
      */
+    @Transactional(readOnly = true)
     public List<String> getAvailableTimeSlotsForDoctor(Long doctorId, LocalDate date) {
+        replicaLagGuard.pinPrimaryIfRecentlyWritten("doctor:" + doctorId);
+        ClinicEvents.SlotGeneration event = new ClinicEvents.SlotGeneration();
+        event.start();
         List<String> availableSlots = new ArrayList<>();
+        boolean success = true;
         
         try {
-            // Get doctor's available times for the day of week
+            // Get doctor's available times for the day of week; the doctor and the
+            // availableTimes collection are served from the second-level cache
             DayOfWeek dayOfWeek = date.getDayOfWeek();
-            List<DoctorAvailableTime> doctorTimes = availableTimeRepository
-                .findByDoctorIdAndDayOfWeekAndIsActiveTrue(doctorId, dayOfWeek);
+            List<DoctorAvailableTime> doctorTimes = doctorRepository.findById(doctorId)
+                .filter(doctor -> Boolean.TRUE.equals(doctor.getIsActive()))
+                .map(doctor -> doctor.getAvailableTimes().stream()
+                    .filter(time -> time.getDayOfWeek() == dayOfWeek && Boolean.TRUE.equals(time.getIsActive()))
+                    .collect(Collectors.toList()))
+                .orElse(List.of());
             
             if (doctorTimes.isEmpty()) {
                 return availableSlots; // No availability for this day
@@ -88,7 +124,12 @@ public class DoctorService {
             }
         } catch (Exception e) {
             // Log error and return empty list
-            System.err.println("Error getting available time slots: " + e.getMessage());
+            logger.error("Error getting available time slots for doctor {} on {}", doctorId, date, e);
+            serviceMetrics.recordError(DoctorService.class, "getAvailableTimeSlotsForDoctor", e);
+            success = false;
+        } finally {
+            // Also covers the early return for a day without availability
+            event.finish(doctorId, availableSlots.size(), success);
         }
         
         return availableSlots;
@@ -97,6 +138,7 @@ public class DoctorService {
     /**
      * Validate doctor login credentials and return structured response
      */
+    @Transactional(readOnly = true)
     public ApiResponseDTO<String> authenticateDoctor(String email, String password) {
         try {
             Optional<Doctor> doctorOpt = doctorRepository.findByEmail(email);
@@ -112,12 +154,17 @@ public class DoctorService {
                 return new ApiResponseDTO<>(false, "Invalid email or password", null);
             }
             
+            if (!Boolean.TRUE.equals(doctor.getIsActive())) {
+                return new ApiResponseDTO<>(false, "Doctor account is deactivated", null);
+            }
+            
             // Generate JWT token
             String token = tokenService.generateToken(doctor.getEmail(), "DOCTOR", doctor.getId());
             
             return new ApiResponseDTO<>(true, "Login successful", token);
             
         } catch (Exception e) {
+            serviceMetrics.recordError(DoctorService.class, "authenticateDoctor", e);
             return new ApiResponseDTO<>(false, "Login error: " + e.getMessage(), null);
         }
     }
@@ -125,19 +172,22 @@ public class DoctorService {
     /**
      * Get doctor availability with filter options
      */
+    @Transactional(readOnly = true)
     public List<DoctorAvailabilityDTO> getDoctorAvailability(LocalDate date, String specialty, String timeSlot) {
         List<DoctorAvailabilityDTO> availabilityList = new ArrayList<>();
         
         try {
-            // Get doctors based on specialty filter
+            // Get active doctors based on specialty filter
             List<Doctor> doctors;
             if (specialty != null && !specialty.trim().isEmpty()) {
-                doctors = doctorRepository.findBySpecialtyContainingIgnoreCase(specialty);
+                demandMetricsService.recordSpecialtySearch(specialty);
+                doctors = doctorRepository.findByIsActiveTrueAndSpecialtyContainingIgnoreCase(specialty);
             } else {
-                doctors = doctorRepository.findAll();
+                doctors = doctorRepository.findByIsActiveTrue();
             }
             
-            // For each doctor, get their availability
+            // For each doctor, get their availability. A self-call, so it joins this transaction and
+            // its replica pin comes too late; DoctorController decides the pin before calling us
             for (Doctor doctor : doctors) {
                 List<String> availableSlots = getAvailableTimeSlotsForDoctor(doctor.getId(), date);
                 
@@ -159,7 +209,8 @@ public class DoctorService {
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error getting doctor availability: " + e.getMessage());
+            logger.error("Error getting doctor availability for {}", date, e);
+            serviceMetrics.recordError(DoctorService.class, "getDoctorAvailability", e);
         }
         
         return availabilityList;
@@ -187,20 +238,22 @@ public class DoctorService {
     }
     
     /**
-     * Get all doctors
+     * Get all active doctors
      */
+    @Transactional(readOnly = true)
     public List<DoctorDTO> getAllDoctors() {
-        List<Doctor> doctors = doctorRepository.findAll();
+        List<Doctor> doctors = doctorRepository.findByIsActiveTrue();
         return doctors.stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
     }
     
     /**
-     * Get doctors by specialty
+     * Get active doctors by specialty
      */
+    @Transactional(readOnly = true)
     public List<DoctorDTO> getDoctorsBySpecialty(String specialty) {
-        List<Doctor> doctors = doctorRepository.findBySpecialtyContainingIgnoreCase(specialty);
+        List<Doctor> doctors = doctorRepository.findByIsActiveTrueAndSpecialtyContainingIgnoreCase(specialty);
         return doctors.stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
@@ -209,7 +262,9 @@ public class DoctorService {
     /**
      * Get doctor by ID
      */
+    @Transactional(readOnly = true)
     public DoctorDTO getDoctorById(Long id) {
+        replicaLagGuard.pinPrimaryIfRecentlyWritten("doctor:" + id);
         Optional<Doctor> doctorOpt = doctorRepository.findById(id);
         return doctorOpt.map(this::convertToDTO).orElse(null);
     }
@@ -221,6 +276,7 @@ public class DoctorService {
         Doctor doctor = convertToEntity(doctorDTO);
         doctor.setPassword(passwordEncoder.encode(doctor.getPassword()));
         Doctor savedDoctor = doctorRepository.save(doctor);
+        directoryVersion.advance();
         return convertToDTO(savedDoctor);
     }
     
@@ -236,23 +292,38 @@ public class DoctorService {
         Doctor existingDoctor = existingDoctorOpt.get();
         updateDoctorFromDTO(existingDoctor, doctorDTO);
         Doctor updatedDoctor = doctorRepository.save(existingDoctor);
+        directoryVersion.advance();
+        evictDoctorFromCache(id);
+        replicaLagGuard.recordWrite("doctor:" + id);
         return convertToDTO(updatedDoctor);
     }
     
     /**
-     * Delete doctor
+     * Mark a doctor inactive; false if not found. Only the doctor row is written, so unlike
+     * deleteById nothing cascades over appointments. See DoctorDeactivationService.
      */
-    public boolean deleteDoctor(Long id) {
-        if (doctorRepository.existsById(id)) {
-            doctorRepository.deleteById(id);
-            return true;
+    public boolean deactivateDoctor(Long id) {
+        Optional<Doctor> doctorOpt = doctorRepository.findById(id);
+        if (doctorOpt.isEmpty()) {
+            return false;
+        }
+        
+        Doctor doctor = doctorOpt.get();
+        if (Boolean.TRUE.equals(doctor.getIsActive())) {
+            doctor.setIsActive(false);
+            doctor.setDeactivatedAt(LocalDateTime.now());
+            doctorRepository.save(doctor);
+            directoryVersion.advance();
+            evictDoctorFromCache(id);
+            replicaLagGuard.recordWrite("doctor:" + id);
         }
-        return false;
+        return true;
     }
     
     /**
      * Check if email belongs to doctor with given ID
      */
+    @Transactional(readOnly = true)
     public boolean isDoctorEmail(String email, Long doctorId) {
         Optional<Doctor> doctorOpt = doctorRepository.findById(doctorId);
         return doctorOpt.isPresent() && doctorOpt.get().getEmail().equals(email);
@@ -261,11 +332,21 @@ public class DoctorService {
     /**
      * Get doctor by email
      */
+    @Transactional(readOnly = true)
     public DoctorDTO getDoctorByEmail(String email) {
         Optional<Doctor> doctorOpt = doctorRepository.findByEmail(email);
         return doctorOpt.map(this::convertToDTO).orElse(null);
     }
     
+    /**
+     * Drop a doctor and its availability collection from the second-level cache
+     */
+    private void evictDoctorFromCache(Long id) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Doctor.class, id);
+        cache.evictCollectionData(Doctor.class.getName() + ".availableTimes", id);
+    }
+    
     /**
      * Convert Doctor entity to DTO
      */
@@ -0,0 +1,219 @@
+package com.project.back_end.service;
+
+import com.project.back_end.dto.InteractionWarningDTO;
+import com.project.back_end.model.Prescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Checks a prescription's medications against each other and against the patient's
+ * allergies. The interaction data is compiled once at startup: drug names are interned
+ * to int ids and each drug gets a sorted int[] of interacting drugs, so a check is a few
+ * array lookups and binary searches with no allocation beyond the warnings themselves.
+ */
+@Service
+public class DrugInteractionChecker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DrugInteractionChecker.class);
+    private static final int UNKNOWN_DRUG = -1;
+    
+    @Value("${clinic.prescriptions.interactions-file:classpath:data/drug_interactions.csv}")
+    private Resource interactionsFile;
+    
+    @Value("${clinic.prescriptions.drug-classes-file:classpath:data/drug_classes.csv}")
+    private Resource drugClassesFile;
+    
+    private final Map<String, Integer> drugIds = new HashMap<>();
+    private final List<String> drugNames = new ArrayList<>();
+    
+    // neighbours[drug] is sorted; edges[drug][k] indexes the severity/description of that pair
+    private int[][] neighbours;
+    private int[][] edges;
+    private String[] severities;
+    private String[] descriptions;
+    
+    // drugClass[drug] is the allergy class id (an interned name), or UNKNOWN_DRUG
+    private int[] drugClass;
+    
+    @PostConstruct
+    public void load() throws IOException {
+        List<String[]> interactions = readRows(interactionsFile, 4);
+        List<String[]> classes = readRows(drugClassesFile, 2);
+        
+        List<int[]> pairs = new ArrayList<>(interactions.size());
+        for (String[] row : interactions) {
+            pairs.add(new int[] {intern(row[0]), intern(row[1])});
+        }
+        Map<Integer, Integer> classOf = new HashMap<>();
+        for (String[] row : classes) {
+            classOf.put(intern(row[0]), intern(row[1]));
+        }
+        
+        int drugCount = drugNames.size();
+        int[] degree = new int[drugCount];
+        for (int[] pair : pairs) {
+            degree[pair[0]]++;
+            degree[pair[1]]++;
+        }
+        int[][] unsortedNeighbours = new int[drugCount][];
+        int[][] unsortedEdges = new int[drugCount][];
+        for (int drug = 0; drug < drugCount; drug++) {
+            unsortedNeighbours[drug] = new int[degree[drug]];
+            unsortedEdges[drug] = new int[degree[drug]];
+        }
+        int[] fill = new int[drugCount];
+        severities = new String[pairs.size()];
+        descriptions = new String[pairs.size()];
+        for (int edge = 0; edge < pairs.size(); edge++) {
+            int a = pairs.get(edge)[0];
+            int b = pairs.get(edge)[1];
+            unsortedNeighbours[a][fill[a]] = b;
+            unsortedEdges[a][fill[a]++] = edge;
+            unsortedNeighbours[b][fill[b]] = a;
+            unsortedEdges[b][fill[b]++] = edge;
+            severities[edge] = interactions.get(edge)[2].toUpperCase(Locale.ROOT).intern();
+            descriptions[edge] = interactions.get(edge)[3];
+        }
+        neighbours = new int[drugCount][];
+        edges = new int[drugCount][];
+        for (int drug = 0; drug < drugCount; drug++) {
+            sortByNeighbour(drug, unsortedNeighbours[drug], unsortedEdges[drug]);
+        }
+        
+        drugClass = new int[drugCount];
+        Arrays.fill(drugClass, UNKNOWN_DRUG);
+        classOf.forEach((drug, drugClassId) -> drugClass[drug] = drugClassId);
+        logger.info("Loaded {} drug interactions across {} drugs and classes", pairs.size(), drugCount);
+    }
+    
+    /**
+     * Interaction and allergy warnings for a medication list; allergies may be null
+     */
+    public List<InteractionWarningDTO> check(List<Prescription.Medication> medications, String allergies) {
+        if (medications == null || medications.isEmpty()) {
+            return List.of();
+        }
+        int[] ids = new int[medications.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = resolve(medications.get(i).getName());
+        }
+        
+        List<InteractionWarningDTO> warnings = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == UNKNOWN_DRUG) {
+                continue;
+            }
+            for (int j = i + 1; j < ids.length; j++) {
+                if (ids[j] == UNKNOWN_DRUG) {
+                    continue;
+                }
+                if (ids[i] == ids[j]) {
+                    warnings.add(new InteractionWarningDTO(InteractionWarningDTO.Type.INTERACTION, "MODERATE",
+                        List.of(medications.get(i).getName(), medications.get(j).getName()),
+                        "Duplicate therapy: " + drugNames.get(ids[i]) + " is prescribed more than once"));
+                    continue;
+                }
+                int k = Arrays.binarySearch(neighbours[ids[i]], ids[j]);
+                if (k >= 0) {
+                    int edge = edges[ids[i]][k];
+                    warnings.add(new InteractionWarningDTO(InteractionWarningDTO.Type.INTERACTION, severities[edge],
+                        List.of(medications.get(i).getName(), medications.get(j).getName()), descriptions[edge]));
+                }
+            }
+        }
+        
+        for (String allergy : AllergyTokens.parse(allergies)) {
+            Integer allergyId = drugIds.get(allergy);
+            if (allergyId == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != UNKNOWN_DRUG && (ids[i] == allergyId || drugClass[ids[i]] == allergyId)) {
+                    warnings.add(new InteractionWarningDTO(InteractionWarningDTO.Type.ALLERGY, "MAJOR",
+                        List.of(medications.get(i).getName()),
+                        "Patient has a recorded allergy to " + allergy));
+                }
+            }
+        }
+        return warnings;
+    }
+    
+    /**
+     * Map a prescribed name such as "Warfarin 5mg tablet" to a drug id: drop tokens with
+     * digits, then try the whole name and finally its first word
+     */
+    private int resolve(String medicationName) {
+        if (medicationName == null) {
+            return UNKNOWN_DRUG;
+        }
+        StringBuilder name = new StringBuilder();
+        for (String token : medicationName.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            if (!token.isEmpty() && token.chars().noneMatch(Character::isDigit)) {
+                if (name.length() > 0) {
+                    name.append(' ');
+                }
+                name.append(token);
+            }
+        }
+        Integer id = drugIds.get(name.toString());
+        if (id == null && name.indexOf(" ") > 0) {
+            id = drugIds.get(name.substring(0, name.indexOf(" ")));
+        }
+        return id != null ? id : UNKNOWN_DRUG;
+    }
+    
+    private int intern(String name) {
+        return drugIds.computeIfAbsent(name.trim().toLowerCase(Locale.ROOT), key -> {
+            drugNames.add(key);
+            return drugNames.size() - 1;
+        });
+    }
+    
+    private void sortByNeighbour(int drug, int[] drugNeighbours, int[] drugEdges) {
+        Integer[] order = new Integer[drugNeighbours.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Integer.compare(drugNeighbours[x], drugNeighbours[y]));
+        neighbours[drug] = new int[order.length];
+        edges[drug] = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            neighbours[drug][i] = drugNeighbours[order[i]];
+            edges[drug][i] = drugEdges[order[i]];
+        }
+    }
+    
+    private static List<String[]> readRows(Resource resource, int columns) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] row = line.split(",", columns);
+                if (row.length != columns) {
+                    throw new IOException("Malformed line in " + resource.getFilename() + ": " + line);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,56 @@
+package com.project.back_end.service;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over a set of unique identifiers (emails, usernames). A negative answer
+ * means the value is certainly new, so the caller can skip its existence query; a
+ * positive answer only means "check the database". Until the first rebuild completes
+ * every value is reported as possibly known.
+ */
+public class KnownValueFilter {
+    
+    private final double falsePositiveRate;
+    private volatile BloomFilter<CharSequence> filter;
+    
+    public KnownValueFilter(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+    
+    /**
+     * Replace the filter with one built from the given values, sized for growth
+     * to twice the current count before the false positive rate degrades
+     */
+    public void rebuild(long currentCount, Stream<String> values) {
+        BloomFilter<CharSequence> rebuilt = BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(1024, currentCount * 2), falsePositiveRate);
+        values.forEach(value -> rebuilt.put(normalize(value)));
+        filter = rebuilt;
+    }
+    
+    public boolean mightContain(String value) {
+        BloomFilter<CharSequence> current = filter;
+        return current == null || value == null || current.mightContain(normalize(value));
+    }
+    
+    public void add(String value) {
+        BloomFilter<CharSequence> current = filter;
+        if (current != null && value != null) {
+            current.put(normalize(value));
+        }
+    }
+    
+    public long approximateSize() {
+        BloomFilter<CharSequence> current = filter;
+        return current != null ? current.approximateElementCount() : 0;
+    }
+    
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
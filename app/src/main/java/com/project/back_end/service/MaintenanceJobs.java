@@ -0,0 +1,73 @@
+package com.project.back_end.service;
+
+import com.project.back_end.dto.JobStatusDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs admin-triggered maintenance jobs in the background and keeps the status of each
+ * job's latest run, so the endpoint that starts a job can answer at once and be polled.
+ * One run per job name at a time; status is per instance and not kept across restarts.
+ */
+@Service
+public class MaintenanceJobs {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceJobs.class);
+    
+    @Autowired
+    @Qualifier("maintenanceJobExecutor")
+    private ThreadPoolTaskExecutor executor;
+    
+    private final Map<String, JobStatusDTO> latest = new ConcurrentHashMap<>();
+    
+    /**
+     * Start a job and return its RUNNING status; IllegalStateException if the same job is
+     * still running or no worker is free
+     */
+    public JobStatusDTO start(String job, Supplier<Map<String, Object>> work) {
+        JobStatusDTO running = new JobStatusDTO(job, JobStatusDTO.State.RUNNING, LocalDateTime.now(), null, null, null);
+        JobStatusDTO previous = latest.compute(job, (name, current) ->
+            current != null && current.getState() == JobStatusDTO.State.RUNNING ? current : running);
+        if (previous != running) {
+            throw new IllegalStateException("Job " + job + " is already running");
+        }
+        try {
+            executor.execute(() -> run(running, work));
+        } catch (TaskRejectedException e) {
+            latest.remove(job, running);
+            throw new IllegalStateException("No worker is free to run job " + job + ", try again later");
+        }
+        return running;
+    }
+    
+    /**
+     * Status of the job's latest run on this instance, or null if it has not run
+     */
+    public JobStatusDTO status(String job) {
+        return latest.get(job);
+    }
+    
+    private void run(JobStatusDTO running, Supplier<Map<String, Object>> work) {
+        JobStatusDTO finished;
+        try {
+            Map<String, Object> result = work.get();
+            finished = new JobStatusDTO(running.getJob(), JobStatusDTO.State.SUCCEEDED,
+                running.getStartedAt(), LocalDateTime.now(), result, null);
+        } catch (RuntimeException e) {
+            logger.warn("Job {} failed: {}", running.getJob(), e.getMessage(), e);
+            finished = new JobStatusDTO(running.getJob(), JobStatusDTO.State.FAILED,
+                running.getStartedAt(), LocalDateTime.now(), null, e.getMessage());
+        }
+        latest.put(running.getJob(), finished);
+    }
+}
@@ -0,0 +1,184 @@
+package com.project.back_end.service;
+
+import com.project.back_end.dto.CursorPageDTO;
+import com.project.back_end.model.PatientMedicationSummary;
+import com.project.back_end.model.PatientMedicationSummary.ActiveMedication;
+import com.project.back_end.model.Prescription;
+import com.project.back_end.repository.PrescriptionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps patient_medication_summary in step with the prescriptions collection using
+ * atomic $push/$pull updates, so concurrent prescription writes for the same patient
+ * never overwrite each other's changes. Writes only touch summaries that already exist;
+ * a patient without one gets it built from their full history on first read, so a
+ * summary never starts from a partial view of older prescriptions.
+ */
+@Service
+public class MedicationSummaryService {
+    
+    // Statuses that take a prescription's medications off the active list
+    private static final Set<String> INACTIVE_STATUSES = Set.of("COMPLETED", "CANCELLED", "DISCONTINUED", "EXPIRED");
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+    
+    public static boolean isActive(String status) {
+        return status == null || !INACTIVE_STATUSES.contains(status.toUpperCase(Locale.ROOT));
+    }
+    
+    /**
+     * Current medications for a patient. Built from the prescriptions collection
+     * the first time it is requested for a patient with no summary yet.
+     */
+    public PatientMedicationSummary getSummary(Long patientId) {
+        PatientMedicationSummary summary = mongoTemplate.findById(patientId, PatientMedicationSummary.class);
+        return summary != null ? summary : rebuild(patientId);
+    }
+    
+    public void onPrescriptionCreated(Prescription prescription) {
+        mongoTemplate.updateFirst(byPatient(prescription.getPatientId()), createdUpdate(prescription),
+            PatientMedicationSummary.class);
+    }
+    
+    /**
+     * Apply several new prescriptions in one round trip. Ordered, so prescriptions for the
+     * same patient land in request order and the last one wins as "last prescribed".
+     */
+    public void onPrescriptionsCreated(List<Prescription> prescriptions) {
+        if (prescriptions.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PatientMedicationSummary.class);
+        for (Prescription prescription : prescriptions) {
+            bulk.updateOne(byPatient(prescription.getPatientId()), createdUpdate(prescription));
+        }
+        bulk.execute();
+    }
+    
+    private static Update createdUpdate(Prescription prescription) {
+        Update update = new Update()
+            .set("lastPrescriptionId", prescription.getId())
+            .set("lastPrescribedAt", prescription.getPrescriptionDate())
+            .set("lastPrescribingDoctorId", prescription.getDoctorId())
+            .set("lastPrescribingDoctorName", prescription.getDoctorName())
+            .set("updatedAt", LocalDateTime.now());
+        if (isActive(prescription.getStatus())) {
+            update.push("activeMedications").each(toActiveMedications(prescription).toArray());
+        }
+        return update;
+    }
+    
+    public void onPrescriptionDeleted(Prescription prescription) {
+        removeMedications(prescription);
+        Query lastPrescriptionDeleted = byPatient(prescription.getPatientId())
+            .addCriteria(Criteria.where("lastPrescriptionId").is(prescription.getId()));
+        if (mongoTemplate.exists(lastPrescriptionDeleted, PatientMedicationSummary.class)) {
+            // Fall back to the next most recent prescription; one indexed lookup
+            Optional<Prescription> previous = prescriptionRepository
+                .findFirstByPatientIdOrderByPrescriptionDateDesc(prescription.getPatientId());
+            mongoTemplate.updateFirst(lastPrescriptionDeleted, lastPrescribedUpdate(previous.orElse(null)),
+                PatientMedicationSummary.class);
+        }
+    }
+    
+    public void onPrescriptionStatusChanged(Prescription prescription, String previousStatus) {
+        boolean wasActive = isActive(previousStatus);
+        boolean nowActive = isActive(prescription.getStatus());
+        if (wasActive && !nowActive) {
+            removeMedications(prescription);
+        } else if (!wasActive && nowActive) {
+            Update update = new Update()
+                .push("activeMedications").each(toActiveMedications(prescription).toArray())
+                .set("updatedAt", LocalDateTime.now());
+            mongoTemplate.updateFirst(byPatient(prescription.getPatientId()), update, PatientMedicationSummary.class);
+        }
+    }
+    
+    /**
+     * Recompute a patient's summary from all of their prescriptions. Walks the history a
+     * keyset page at a time, newest first, and keeps only the active medications, so a long
+     * history is never held in memory at once.
+     */
+    public PatientMedicationSummary rebuild(Long patientId) {
+        Deque<List<ActiveMedication>> active = new ArrayDeque<>();
+        Prescription last = null;
+        String cursor = null;
+        do {
+            CursorPageDTO<Prescription> page = PrescriptionQueries.toPage(mongoTemplate.find(
+                PrescriptionQueries.byPatient(patientId, cursor, PrescriptionQueries.MAX_PAGE_SIZE),
+                Prescription.class), PrescriptionQueries.MAX_PAGE_SIZE);
+            for (Prescription prescription : page.getItems()) {
+                if (last == null) {
+                    last = prescription;
+                }
+                if (isActive(prescription.getStatus())) {
+                    // Pages come newest first; the summary lists medications oldest first
+                    active.addFirst(toActiveMedications(prescription));
+                }
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        PatientMedicationSummary summary = new PatientMedicationSummary(patientId);
+        active.forEach(summary.getActiveMedications()::addAll);
+        if (last != null) {
+            summary.setLastPrescriptionId(last.getId());
+            summary.setLastPrescribedAt(last.getPrescriptionDate());
+            summary.setLastPrescribingDoctorId(last.getDoctorId());
+            summary.setLastPrescribingDoctorName(last.getDoctorName());
+        }
+        summary.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.findAndReplace(byPatient(patientId), summary, FindAndReplaceOptions.options().upsert());
+        return summary;
+    }
+    
+    private void removeMedications(Prescription prescription) {
+        Update update = new Update()
+            .pull("activeMedications", Query.query(Criteria.where("prescriptionId").is(prescription.getId())))
+            .set("updatedAt", LocalDateTime.now());
+        mongoTemplate.updateFirst(byPatient(prescription.getPatientId()), update, PatientMedicationSummary.class);
+    }
+    
+    private static Update lastPrescribedUpdate(Prescription last) {
+        return new Update()
+            .set("lastPrescriptionId", last != null ? last.getId() : null)
+            .set("lastPrescribedAt", last != null ? last.getPrescriptionDate() : null)
+            .set("lastPrescribingDoctorId", last != null ? last.getDoctorId() : null)
+            .set("lastPrescribingDoctorName", last != null ? last.getDoctorName() : null)
+            .set("updatedAt", LocalDateTime.now());
+    }
+    
+    private static List<ActiveMedication> toActiveMedications(Prescription prescription) {
+        List<ActiveMedication> medications = new ArrayList<>();
+        if (prescription.getMedications() != null) {
+            for (Prescription.Medication medication : prescription.getMedications()) {
+                medications.add(new ActiveMedication(prescription, medication));
+            }
+        }
+        return medications;
+    }
+    
+    private static Query byPatient(Long patientId) {
+        return Query.query(Criteria.where("_id").is(patientId));
+    }
+}
@@ -0,0 +1,295 @@
+package com.project.back_end.service;
+
+import com.project.back_end.dto.CohortQueryDTO;
+import com.project.back_end.dto.CohortResultDTO;
+import com.project.back_end.event.PatientChangedEvent;
+import com.project.back_end.model.Patient;
+import com.project.back_end.monitoring.ServiceMetrics;
+import com.project.back_end.repository.PatientRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory cohort engine over patient IDs. Keeps one compressed bitmap per blood
+ * group, gender, birth year and allergy token, so combined filters become bitmap
+ * AND/OR operations instead of full scans of the patient table.
+ */
+@Service
+public class PatientCohortIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PatientCohortIndex.class);
+    private static final int NO_BIRTH_DATE = Integer.MIN_VALUE;
+    
+    @Autowired
+    private PatientRepository patientRepository;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Value("${clinic.cohort.load-chunk-size:10000}")
+    private int loadChunkSize;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap allPatients = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byBloodGroup = new HashMap<>();
+    private final Map<String, RoaringBitmap> byGender = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byBirthYear = new HashMap<>();
+    private final Map<String, RoaringBitmap> byAllergy = new HashMap<>();
+    
+    // Birth dates as epoch days indexed by patient ID, for exact age boundaries
+    private int[] birthEpochDays = new int[0];
+    private volatile boolean ready;
+    
+    // Patients changed by events while load() runs; their chunk rows may predate the event
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+    
+    /**
+     * Build the index from the patient table in keyset chunks. Events keep being applied
+     * meanwhile; a patient they touched is already current, so its chunk row is skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int loaded = 0;
+        List<Object[]> chunk;
+        do {
+            chunk = patientRepository.findCohortAttributesAfter(afterId, PageRequest.of(0, loadChunkSize));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : chunk) {
+                    Long id = (Long) row[0];
+                    afterId = id;
+                    if (changedWhileLoading.contains(id)) {
+                        continue;
+                    }
+                    remove(id);
+                    add(id, (String) row[1], (Patient.Gender) row[2], (LocalDate) row[3], (String) row[4]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded += chunk.size();
+        } while (chunk.size() == loadChunkSize);
+        
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        serviceMetrics.registerCacheSize("patient.cohort", this::size);
+        logger.info("Patient cohort index loaded {} patients in {} ms", loaded, System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Keep the index current as patients are written
+     */
+    @EventListener
+    public void onPatientChanged(PatientChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedWhileLoading.add(event.getPatientId());
+            }
+            remove(event.getPatientId());
+            Patient patient = event.getPatient();
+            if (event.getChangeType() != PatientChangedEvent.ChangeType.DELETED && patient != null) {
+                add(patient.getId(), patient.getBloodGroup(), patient.getGender(),
+                    patient.getDateOfBirth(), patient.getAllergies());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Count the patients matching the query and return the requested page of IDs
+     */
+    public CohortResultDTO query(CohortQueryDTO query) {
+        if (!ready) {
+            throw new IllegalStateException("Patient cohort index is still loading");
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = allPatients.clone();
+            if (hasValues(query.getBloodGroups())) {
+                result.and(union(byBloodGroup, normalizeAll(query.getBloodGroups())));
+            }
+            if (hasValues(query.getGenders())) {
+                result.and(union(byGender, normalizeAll(query.getGenders())));
+            }
+            if (hasValues(query.getAllergies())) {
+                result.and(union(byAllergy, normalizeAll(query.getAllergies())));
+            }
+            if (query.getMinAge() != null || query.getMaxAge() != null) {
+                result.and(ageRange(query.getMinAge(), query.getMaxAge(), LocalDate.now()));
+            }
+            return new CohortResultDTO(result.getLongCardinality(), query.getPage(), query.getSize(),
+                page(result, query.getPage(), query.getSize()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return allPatients.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void add(Long patientId, String bloodGroup, Patient.Gender gender, LocalDate dateOfBirth, String allergies) {
+        if (patientId == null || patientId > Integer.MAX_VALUE) {
+            logger.warn("Patient ID {} cannot be held in the cohort index", patientId);
+            return;
+        }
+        int id = patientId.intValue();
+        allPatients.add(id);
+        if (bloodGroup != null && !bloodGroup.isBlank()) {
+            bitmap(byBloodGroup, normalize(bloodGroup)).add(id);
+        }
+        if (gender != null) {
+            bitmap(byGender, normalize(gender.name())).add(id);
+        }
+        ensureBirthCapacity(id);
+        if (dateOfBirth != null) {
+            bitmap(byBirthYear, dateOfBirth.getYear()).add(id);
+            birthEpochDays[id] = (int) dateOfBirth.toEpochDay();
+        } else {
+            birthEpochDays[id] = NO_BIRTH_DATE;
+        }
+        for (String token : AllergyTokens.parse(allergies)) {
+            bitmap(byAllergy, token).add(id);
+        }
+    }
+    
+    private void remove(Long patientId) {
+        if (patientId == null || patientId > Integer.MAX_VALUE) {
+            return;
+        }
+        int id = patientId.intValue();
+        if (!allPatients.contains(id)) {
+            return;
+        }
+        // A patient is in at most a handful of bitmaps, but we don't keep a reverse
+        // map, so clear it everywhere; removal from a bitmap that lacks it is cheap
+        allPatients.remove(id);
+        byBloodGroup.values().forEach(bitmap -> bitmap.remove(id));
+        byGender.values().forEach(bitmap -> bitmap.remove(id));
+        byBirthYear.values().forEach(bitmap -> bitmap.remove(id));
+        byAllergy.values().forEach(bitmap -> bitmap.remove(id));
+        if (id < birthEpochDays.length) {
+            birthEpochDays[id] = NO_BIRTH_DATE;
+        }
+    }
+    
+    /**
+     * Patients whose age today is within [minAge, maxAge]: whole birth years are OR-ed
+     * bucket bitmaps, and the two boundary years are checked against exact birth dates
+     */
+    private RoaringBitmap ageRange(Integer minAge, Integer maxAge, LocalDate today) {
+        // Born on or before latestBirth and after earliestBirthExclusive
+        LocalDate latestBirth = today.minusYears(minAge != null ? minAge : 0);
+        LocalDate earliestBirthExclusive = today.minusYears((maxAge != null ? maxAge : 150) + 1L);
+        int latestDay = (int) latestBirth.toEpochDay();
+        int earliestDayExclusive = (int) earliestBirthExclusive.toEpochDay();
+        
+        RoaringBitmap result = new RoaringBitmap();
+        for (int year = earliestBirthExclusive.getYear(); year <= latestBirth.getYear(); year++) {
+            RoaringBitmap bucket = byBirthYear.get(year);
+            if (bucket == null) {
+                continue;
+            }
+            boolean boundaryYear = year == earliestBirthExclusive.getYear() || year == latestBirth.getYear();
+            if (!boundaryYear) {
+                result.or(bucket);
+                continue;
+            }
+            PeekableIntIterator ids = bucket.getIntIterator();
+            while (ids.hasNext()) {
+                int id = ids.next();
+                int birthDay = birthEpochDays[id];
+                if (birthDay > earliestDayExclusive && birthDay <= latestDay) {
+                    result.add(id);
+                }
+            }
+        }
+        return result;
+    }
+    
+    private static List<Long> page(RoaringBitmap result, int page, int size) {
+        long offset = (long) page * size;
+        if (size == 0 || offset >= result.getLongCardinality()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(size);
+        PeekableIntIterator iterator = result.getIntIterator();
+        iterator.advanceIfNeeded(result.select((int) offset));
+        while (iterator.hasNext() && ids.size() < size) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+    
+    private static <K> RoaringBitmap union(Map<K, RoaringBitmap> buckets, List<K> keys) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (K key : keys) {
+            RoaringBitmap bucket = buckets.get(key);
+            if (bucket != null) {
+                result.or(bucket);
+            }
+        }
+        return result;
+    }
+    
+    private static <K> RoaringBitmap bitmap(Map<K, RoaringBitmap> buckets, K key) {
+        return buckets.computeIfAbsent(key, k -> new RoaringBitmap());
+    }
+    
+    private void ensureBirthCapacity(int id) {
+        if (id >= birthEpochDays.length) {
+            int oldLength = birthEpochDays.length;
+            birthEpochDays = Arrays.copyOf(birthEpochDays, Math.max(id + 1, oldLength * 3 / 2 + 1024));
+            Arrays.fill(birthEpochDays, oldLength, birthEpochDays.length, NO_BIRTH_DATE);
+        }
+    }
+    
+    private static List<String> normalizeAll(List<String> values) {
+        List<String> normalized = new ArrayList<>(values.size());
+        for (String value : values) {
+            normalized.add(normalize(value));
+        }
+        return normalized;
+    }
+    
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static boolean hasValues(List<String> values) {
+        return values != null && !values.isEmpty();
+    }
+}
@@ -0,0 +1,171 @@
+package com.project.back_end.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.dto.AppointmentDTO;
+import com.project.back_end.dto.CursorPageDTO;
+import com.project.back_end.dto.HistoryEntryDTO;
+import com.project.back_end.model.Prescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds a patient's medical history from MySQL appointments and MongoDB prescriptions.
+ * Both stores are queried concurrently with their own timeout; if one fails or is slow
+ * the timeline is still returned from the other and the header line says which source
+ * is missing. A lookup that misses its deadline is cancelled, which interrupts its worker,
+ * and one the executor cannot take is reported as an error rather than run inline.
+ */
+@Service
+public class PatientHistoryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PatientHistoryService.class);
+    
+    public static final String SOURCE_OK = "OK";
+    public static final String SOURCE_TIMEOUT = "TIMEOUT";
+    public static final String SOURCE_ERROR = "ERROR";
+    
+    @Autowired
+    private AppointmentService appointmentService;
+    
+    @Autowired
+    private PrescriptionService prescriptionService;
+    
+    @Autowired
+    @Qualifier("patientHistoryExecutor")
+    private ThreadPoolTaskExecutor executor;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${clinic.history.appointments-timeout-ms:2000}")
+    private long appointmentsTimeoutMs;
+    
+    @Value("${clinic.history.prescriptions-timeout-ms:2000}")
+    private long prescriptionsTimeoutMs;
+    
+    @Value("${clinic.history.max-prescriptions:500}")
+    private int maxPrescriptions;
+    
+    /**
+     * Write the history as NDJSON: a header line with per-source status, then one
+     * HistoryEntryDTO per line, newest first
+     */
+    public void writeHistory(Long patientId, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Future<List<AppointmentDTO>> appointments = fetch(() -> appointmentService.getAppointmentsForPatient(patientId));
+        Future<List<Prescription>> prescriptions = fetch(() -> loadPrescriptions(patientId));
+        
+        // Deadlines count from submission, so waiting on the first source eats into neither timeout
+        Map<String, String> sources = new LinkedHashMap<>();
+        List<AppointmentDTO> appointmentList = await(appointments,
+            start + TimeUnit.MILLISECONDS.toNanos(appointmentsTimeoutMs), "appointments", patientId, sources);
+        List<Prescription> prescriptionList = await(prescriptions,
+            start + TimeUnit.MILLISECONDS.toNanos(prescriptionsTimeoutMs), "prescriptions", patientId, sources);
+        
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("patientId", patientId);
+        header.put("sources", sources);
+        writeLine(out, header);
+        for (HistoryEntryDTO entry : merge(appointmentList, prescriptionList)) {
+            writeLine(out, entry);
+        }
+        out.flush();
+    }
+    
+    private <T> Future<List<T>> fetch(Supplier<List<T>> lookup) {
+        try {
+            return executor.submit(lookup::get);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private <T> List<T> await(Future<List<T>> future, long deadlineNanos, String source, Long patientId,
+                              Map<String, String> sources) {
+        Throwable cause;
+        try {
+            List<T> result = future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            sources.put(source, SOURCE_OK);
+            return result;
+        } catch (TimeoutException e) {
+            cause = e;
+        } catch (ExecutionException e) {
+            cause = e.getCause() != null ? e.getCause() : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cause = e;
+        }
+        future.cancel(true);
+        boolean timedOut = cause instanceof TimeoutException;
+        sources.put(source, timedOut ? SOURCE_TIMEOUT : SOURCE_ERROR);
+        logger.warn("Patient {} history: {} unavailable ({})", patientId, source,
+            timedOut ? "timed out" : cause.toString());
+        return List.of();
+    }
+    
+    private List<Prescription> loadPrescriptions(Long patientId) {
+        List<Prescription> prescriptions = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<Prescription> page = prescriptionService.getPrescriptionsByPatientId(
+                patientId, cursor, PrescriptionQueries.MAX_PAGE_SIZE);
+            prescriptions.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null && prescriptions.size() < maxPrescriptions);
+        return prescriptions;
+    }
+    
+    /**
+     * Attach prescriptions to their appointment by appointmentId; the rest become
+     * entries of their own. Newest first.
+     */
+    static List<HistoryEntryDTO> merge(List<AppointmentDTO> appointments, List<Prescription> prescriptions) {
+        Map<Long, HistoryEntryDTO> byAppointment = new HashMap<>();
+        List<HistoryEntryDTO> timeline = new ArrayList<>(appointments.size() + prescriptions.size());
+        for (AppointmentDTO appointment : appointments) {
+            HistoryEntryDTO entry = new HistoryEntryDTO(HistoryEntryDTO.Type.APPOINTMENT,
+                appointment.getAppointmentTime(), appointment, new ArrayList<>());
+            byAppointment.put(appointment.getId(), entry);
+            timeline.add(entry);
+        }
+        for (Prescription prescription : prescriptions) {
+            HistoryEntryDTO entry = byAppointment.get(prescription.getAppointmentId());
+            if (entry != null) {
+                entry.getPrescriptions().add(prescription);
+            } else {
+                timeline.add(new HistoryEntryDTO(HistoryEntryDTO.Type.PRESCRIPTION,
+                    prescription.getPrescriptionDate(), null, List.of(prescription)));
+            }
+        }
+        timeline.sort(Comparator.comparing(HistoryEntryDTO::getTime,
+            Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())));
+        return timeline;
+    }
+    
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+}
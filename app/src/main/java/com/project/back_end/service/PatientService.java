@@ -1,27 +1,97 @@
 package com.project.back_end.service;
 
+import com.project.back_end.audit.AuditLogWriter;
 import com.project.back_end.model.Patient;
 import com.project.back_end.repository.PatientRepository;
+import com.project.back_end.dto.CursorPageDTO;
 import com.project.back_end.dto.LoginDTO;
+import com.project.back_end.dto.RecallPatientDTO;
+import com.project.back_end.event.PatientChangedEvent;
+import com.project.back_end.monitoring.ServiceMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 public class PatientService {
     
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MAX_SEARCH_LIMIT = 100;
+    
+    public static final int MAX_RECALL_PAGE_SIZE = 200;
+    
+    // Matches innodb_ft_min_token_size; shorter terms are not in the full-text index
+    private static final int MIN_FULL_TEXT_TERM_LENGTH = 3;
+    
+    // MySQL's smallest DATETIME; the visited part of the recall list starts after it
+    private static final LocalDateTime RECALL_START = LocalDateTime.of(1000, 1, 1, 0, 0);
+    
     @Autowired
     private PatientRepository patientRepository;
     
     @Autowired
     private TokenService tokenService;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    
+    private final KnownValueFilter knownEmails;
+    
+    public PatientService(@Value("${clinic.registration.bloom-false-positive-rate:0.01}") double falsePositiveRate) {
+        this.knownEmails = new KnownValueFilter(falsePositiveRate);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildEmailFilter() {
+        // Counted before the stream opens: no other statement may run on the connection
+        // while a streaming result set is active
+        long count = patientRepository.count();
+        try (Stream<String> emails = patientRepository.streamAllEmails()) {
+            knownEmails.rebuild(count, emails);
+        }
+        serviceMetrics.registerCacheSize("patient.email.bloom", knownEmails::approximateSize);
+    }
+    
+    /**
+     * The unique constraint on email is the authority. The existence query only runs when
+     * the Bloom filter says the email may be taken, which is rare for genuine new signups.
+     */
     public Patient createPatient(Patient patient) {
-        if (patientRepository.existsByEmail(patient.getEmail())) {
+        if (knownEmails.mightContain(patient.getEmail()) && patientRepository.existsByEmail(patient.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
-        return patientRepository.save(patient);
+        Patient saved;
+        try {
+            saved = patientRepository.save(patient);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent signup, or the filter has not been built yet
+            if (patientRepository.existsByEmail(patient.getEmail())) {
+                throw new RuntimeException("Email already exists");
+            }
+            throw e;
+        }
+        knownEmails.add(saved.getEmail());
+        auditLogWriter.record("PATIENT_REGISTERED", saved.getId(), "PATIENT", Map.of());
+        eventPublisher.publishEvent(new PatientChangedEvent(PatientChangedEvent.ChangeType.CREATED, saved.getId(), saved));
+        return saved;
     }
     
     public List<Patient> getAllPatients() {
@@ -37,7 +107,92 @@ public class PatientService {
     }
     
     public List<Patient> searchPatientsByName(String name) {
-        return patientRepository.findByNameContainingIgnoreCase(name);
+        return searchPatients(name, DEFAULT_SEARCH_LIMIT);
+    }
+    
+    /**
+     * Ranked search across name, email and phone. Every term must match as a word
+     * prefix, so results narrow as the user types.
+     */
+    public List<Patient> searchPatients(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        
+        StringBuilder booleanQuery = new StringBuilder();
+        for (String term : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (term.length() >= MIN_FULL_TEXT_TERM_LENGTH) {
+                booleanQuery.append('+').append(term).append("* ");
+            }
+        }
+        
+        if (booleanQuery.length() == 0) {
+            // Only very short terms; a prefix range scan on idx_patient_name is the best we can do
+            return patientRepository.findByNameLike(likePrefix(query.trim()), PageRequest.of(0, boundedLimit));
+        }
+        return patientRepository.fullTextSearch(booleanQuery.toString().trim(), boundedLimit);
+    }
+    
+    /**
+     * LIKE pattern matching names that start with the given text taken literally
+     */
+    static String likePrefix(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+    
+    /**
+     * Patients with no completed visit in the last N months and nothing booked, one page at
+     * a time: never-seen patients first, then the longest overdue. Pass the returned cursor
+     * back to get the next page.
+     */
+    public CursorPageDTO<RecallPatientDTO> getPatientsDueForRecall(int months, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_RECALL_PAGE_SIZE));
+        LocalDateTime since = LocalDateTime.now().minusMonths(months);
+        
+        // A cursor is either "<patientId>" (still among never-seen patients) or "<lastVisitAt>|<patientId>"
+        String[] position = decodeRecallCursor(cursor);
+        LocalDateTime afterVisit = position.length == 2 ? LocalDateTime.parse(position[0]) : null;
+        long afterId = Long.parseLong(position[position.length - 1]);
+        
+        // One row more than the page so we know whether another page follows
+        List<RecallPatientDTO> rows = new ArrayList<>();
+        if (afterVisit == null) {
+            rows.addAll(patientRepository.findRecallNeverVisited(afterId, PageRequest.of(0, pageSize + 1)));
+            afterVisit = RECALL_START;
+            afterId = 0;
+        }
+        if (rows.size() <= pageSize) {
+            rows.addAll(patientRepository.findRecallLastVisitBefore(since, afterVisit, afterId,
+                PageRequest.of(0, pageSize + 1 - rows.size())));
+        }
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<RecallPatientDTO> page = rows.subList(0, pageSize);
+        RecallPatientDTO last = page.get(pageSize - 1);
+        String next = last.getLastVisitAt() == null
+            ? String.valueOf(last.getPatientId())
+            : last.getLastVisitAt() + "|" + last.getPatientId();
+        return new CursorPageDTO<>(page, Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(next.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private static String[] decodeRecallCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new String[] {"0"};
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length == 2) {
+                LocalDateTime.parse(parts[0]);
+            }
+            Long.parseLong(parts[parts.length - 1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
     }
     
     public Map<String, Object> validatePatientLogin(LoginDTO loginDTO) {
@@ -45,6 +200,7 @@ public class PatientService {
         
         Optional<Patient> patientOpt = patientRepository.findByEmail(loginDTO.getEmail());
         if (patientOpt.isEmpty()) {
+            auditLogWriter.record("LOGIN_FAILED", null, "PATIENT", Map.of("reason", "UNKNOWN_EMAIL"));
             response.put("success", false);
             response.put("message", "Invalid email or password");
             return response;
@@ -52,12 +208,14 @@ public class PatientService {
         
         Patient patient = patientOpt.get();
         if (!patient.getPassword().equals(loginDTO.getPassword())) {
+            auditLogWriter.record("LOGIN_FAILED", patient.getId(), "PATIENT", Map.of("reason", "BAD_PASSWORD"));
             response.put("success", false);
             response.put("message", "Invalid email or password");
             return response;
         }
         
-        String token = tokenService.generateTokenWithRole(patient.getEmail(), "PATIENT");
+        String token = tokenService.generateToken(patient.getEmail(), "PATIENT", patient.getId());
+        auditLogWriter.record("LOGIN_SUCCEEDED", patient.getId(), "PATIENT", Map.of());
         response.put("success", true);
         response.put("token", token);
         response.put("patient", patient);
@@ -74,12 +232,15 @@ public class PatientService {
             patient.setPhone(patientDetails.getPhone());
             patient.setAddress(patientDetails.getAddress());
             patient.setDateOfBirth(patientDetails.getDateOfBirth());
-            return patientRepository.save(patient);
+            Patient saved = patientRepository.save(patient);
+            eventPublisher.publishEvent(new PatientChangedEvent(PatientChangedEvent.ChangeType.UPDATED, saved.getId(), saved));
+            return saved;
         }
         return null;
     }
     
     public void deletePatient(Long id) {
         patientRepository.deleteById(id);
+        eventPublisher.publishEvent(new PatientChangedEvent(PatientChangedEvent.ChangeType.DELETED, id, null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.project.back_end.service;
+
+import com.project.back_end.dto.JobStatusDTO;
+import com.project.back_end.event.PatientChangedEvent;
+import com.project.back_end.repository.PatientRepository;
+import com.project.back_end.repository.PatientVisitSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Maintains patient_visit_summary. The write methods join the caller's transaction,
+ * so the summary commits or rolls back together with the appointment change.
+ */
+@Service
+public class PatientVisitSummaryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PatientVisitSummaryService.class);
+    
+    static final String BACKFILL_JOB = "visit-summary-backfill";
+    
+    @Autowired
+    private PatientVisitSummaryRepository visitSummaryRepository;
+    
+    @Autowired
+    private PatientRepository patientRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MaintenanceJobs maintenanceJobs;
+    
+    @Value("${clinic.visit-summary.backfill-chunk-size:1000}")
+    private int backfillChunkSize;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBooking(Long patientId, LocalDateTime appointmentTime) {
+        if (appointmentTime.isAfter(LocalDateTime.now())) {
+            visitSummaryRepository.upsertNextVisit(patientId, appointmentTime);
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCompletion(Long patientId, LocalDateTime appointmentTime) {
+        visitSummaryRepository.upsertLastVisit(patientId, appointmentTime);
+        visitSummaryRepository.refreshNextVisit(patientId);
+    }
+    
+    /**
+     * Batch form of recordCompletion for a chunk of appointments completed by one bulk update
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCompletions(Collection<Long> appointmentIds, Collection<Long> patientIds) {
+        visitSummaryRepository.upsertLastVisits(appointmentIds);
+        visitSummaryRepository.refreshNextVisits(patientIds);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCancellation(Long patientId) {
+        visitSummaryRepository.refreshNextVisit(patientId);
+    }
+    
+    /**
+     * Batch form of recordCancellation for a chunk of appointments cancelled by one bulk update
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCancellations(Collection<Long> patientIds) {
+        visitSummaryRepository.refreshNextVisits(patientIds);
+    }
+    
+    @EventListener
+    @Transactional
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (event.getChangeType() == PatientChangedEvent.ChangeType.CREATED) {
+            visitSummaryRepository.insertIfAbsent(event.getPatientId());
+        } else if (event.getChangeType() == PatientChangedEvent.ChangeType.DELETED) {
+            visitSummaryRepository.deleteById(event.getPatientId());
+        }
+    }
+    
+    /**
+     * Run backfill in the background; poll backfillStatus for the outcome
+     */
+    public JobStatusDTO startBackfill() {
+        return maintenanceJobs.start(BACKFILL_JOB, () -> Map.of("affectedRows", backfill()));
+    }
+    
+    /**
+     * Latest backfill run on this instance, or null if none has run
+     */
+    public JobStatusDTO backfillStatus() {
+        return maintenanceJobs.status(BACKFILL_JOB);
+    }
+    
+    /**
+     * Rebuild every summary row from appointment history, one patient ID range per
+     * transaction so no single statement holds locks on the whole table.
+     * Safe to re-run; returns the affected row count reported by MySQL. Only runs as the
+     * BACKFILL_JOB, which MaintenanceJobs keeps to one run at a time.
+     */
+    private long backfill() {
+        Long maxId = patientRepository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
+        long affectedRows = 0;
+        for (long afterId = 0; afterId < maxId; afterId += backfillChunkSize) {
+            long from = afterId;
+            long upTo = Math.min(afterId + backfillChunkSize, maxId);
+            Integer rows = transaction.execute(status -> visitSummaryRepository.backfillRange(from, upTo));
+            affectedRows += rows != null ? rows : 0;
+        }
+        logger.info("Visit summary backfill covered patient IDs up to {} in {} ms",
+            maxId, System.currentTimeMillis() - start);
+        return affectedRows;
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.back_end.service;
+
+import com.project.back_end.dto.CursorPageDTO;
+import com.project.back_end.model.Prescription;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset-paged prescription queries, newest first. Every shape here is backed by an
+ * index declared in MongoIndexConfig and checked by MongoQueryPlanVerifier, so keep
+ * the three in step when adding a query.
+ */
+public final class PrescriptionQueries {
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "prescriptionDate")
+        .and(Sort.by(Sort.Direction.DESC, "_id"));
+    
+    private PrescriptionQueries() {
+    }
+    
+    public static Query byPatient(Long patientId, String cursor, int limit) {
+        return page(Criteria.where("patientId").is(patientId), cursor, limit);
+    }
+    
+    public static Query byDoctor(Long doctorId, String cursor, int limit) {
+        return page(Criteria.where("doctorId").is(doctorId), cursor, limit);
+    }
+    
+    public static Query byAppointment(Long appointmentId, String cursor, int limit) {
+        return page(Criteria.where("appointmentId").is(appointmentId), cursor, limit);
+    }
+    
+    public static Query all(String cursor, int limit) {
+        return page(new Criteria(), cursor, limit);
+    }
+    
+    /**
+     * Cursor pointing just after the given prescription
+     */
+    public static String cursorAfter(Prescription last) {
+        String raw = last.getPrescriptionDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Trim the extra row fetched by page() and point the cursor past the last kept row
+     */
+    public static CursorPageDTO<Prescription> toPage(List<Prescription> rows, int limit) {
+        int pageSize = boundedLimit(limit);
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<Prescription> page = rows.subList(0, pageSize);
+        return new CursorPageDTO<>(page, cursorAfter(page.get(pageSize - 1)));
+    }
+    
+    public static int boundedLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Fetches one extra row so the caller can tell whether another page exists
+     */
+    private static Query page(Criteria filter, String cursor, int limit) {
+        Criteria criteria = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor after = decode(cursor);
+            criteria = new Criteria().andOperator(filter, new Criteria().orOperator(
+                Criteria.where("prescriptionDate").lt(after.date),
+                Criteria.where("prescriptionDate").is(after.date).and("_id").lt(after.id)));
+        }
+        return Query.query(criteria).with(NEWEST_FIRST).limit(boundedLimit(limit) + 1);
+    }
+    
+    /**
+     * Any malformed cursor is the caller's mistake and surfaces as IllegalArgumentException
+     */
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return new Cursor(LocalDateTime.parse(parts[0]), parts[1]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+    
+    private static final class Cursor {
+        private final LocalDateTime date;
+        private final String id;
+        
+        private Cursor(LocalDateTime date, String id) {
+            this.date = date;
+            this.id = id;
+        }
+    }
+}
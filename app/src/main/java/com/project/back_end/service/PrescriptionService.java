@@ -1,22 +1,219 @@
 package com.project.back_end.service;
 
+import com.project.back_end.audit.AuditLogWriter;
+import com.project.back_end.model.Doctor;
+import com.project.back_end.model.PatientMedicationSummary;
 import com.project.back_end.model.Prescription;
+import com.project.back_end.repository.DoctorRepository;
+import com.project.back_end.repository.PatientRepository;
 import com.project.back_end.repository.PrescriptionRepository;
+import com.project.back_end.dto.BulkPrescriptionResultDTO;
+import com.project.back_end.dto.CursorPageDTO;
+import com.project.back_end.dto.InteractionWarningDTO;
+import com.project.back_end.dto.PrescriptionResultDTO;
 import com.project.back_end.dto.PrescriptionDTO;
+import com.project.back_end.monitoring.ClinicEvents;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class PrescriptionService {
     
+    public static final int MAX_BULK_SIZE = 100;
+    
     @Autowired
     private PrescriptionRepository prescriptionRepository;
     
-    public Prescription createPrescription(PrescriptionDTO prescriptionDTO) {
+    @Autowired
+    private MedicationSummaryService medicationSummaryService;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private DrugInteractionChecker drugInteractionChecker;
+    
+    @Autowired
+    private PatientRepository patientRepository;
+    
+    @Autowired
+    private DoctorRepository doctorRepository;
+    
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    
+    /**
+     * Save a prescription and return it with any interaction or allergy warnings.
+     * Warnings are advisory and never block the write.
+     */
+    public PrescriptionResultDTO createPrescription(PrescriptionDTO prescriptionDTO) {
+        ClinicEvents.PrescriptionWrite event = new ClinicEvents.PrescriptionWrite();
+        event.start();
+        boolean success = false;
+        try {
+            PrescriptionResultDTO result = doCreatePrescription(prescriptionDTO);
+            success = true;
+            return result;
+        } finally {
+            int medicationCount = prescriptionDTO.getMedications() != null ? prescriptionDTO.getMedications().size() : 0;
+            event.finish(prescriptionDTO.getDoctorId(), medicationCount, success);
+        }
+    }
+    
+    private PrescriptionResultDTO doCreatePrescription(PrescriptionDTO prescriptionDTO) {
+        String allergies = patientRepository.findAllergiesById(prescriptionDTO.getPatientId()).orElse(null);
+        List<InteractionWarningDTO> warnings = drugInteractionChecker.check(prescriptionDTO.getMedications(), allergies);
+        
+        Prescription saved = prescriptionRepository.save(toPrescription(prescriptionDTO));
+        medicationSummaryService.onPrescriptionCreated(saved);
+        auditLogWriter.record("PRESCRIPTION_CREATED", saved.getDoctorId(), "DOCTOR", Map.of(
+            "prescriptionId", saved.getId(),
+            "patientId", saved.getPatientId(),
+            "warnings", warnings.size()));
+        return new PrescriptionResultDTO(saved, warnings);
+    }
+    
+    /**
+     * Validate a clinic session's prescriptions in parallel and insert the valid ones with
+     * one unordered bulk write, so one bad item neither blocks nor rolls back the rest.
+     * Results are returned per item, in request order. Every item is written as the given
+     * doctor's, whatever doctorId or doctorName the request carried.
+     */
+    public List<BulkPrescriptionResultDTO> createPrescriptions(Long doctorId, List<PrescriptionDTO> prescriptionDTOs) {
+        if (prescriptionDTOs == null || prescriptionDTOs.isEmpty()) {
+            return List.of();
+        }
+        if (prescriptionDTOs.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("A bulk request cannot contain more than " + MAX_BULK_SIZE + " prescriptions");
+        }
+        for (int i = 0; i < prescriptionDTOs.size(); i++) {
+            if (prescriptionDTOs.get(i) == null) {
+                throw new IllegalArgumentException("Prescription at index " + i + " is empty");
+            }
+        }
+        String doctorName = doctorRepository.findById(doctorId)
+            .map(Doctor::getName)
+            .orElseThrow(() -> new IllegalArgumentException("Doctor " + doctorId + " does not exist"));
+        prescriptionDTOs.forEach(prescriptionDTO -> {
+            prescriptionDTO.setDoctorId(doctorId);
+            prescriptionDTO.setDoctorName(doctorName);
+        });
+        
+        ClinicEvents.PrescriptionWrite event = new ClinicEvents.PrescriptionWrite();
+        event.start();
+        boolean success = false;
+        try {
+            List<BulkPrescriptionResultDTO> results = doCreatePrescriptions(prescriptionDTOs);
+            success = results.stream().allMatch(BulkPrescriptionResultDTO::isSuccess);
+            return results;
+        } finally {
+            event.finish(doctorId, prescriptionDTOs.size(), success);
+        }
+    }
+    
+    private List<BulkPrescriptionResultDTO> doCreatePrescriptions(List<PrescriptionDTO> prescriptionDTOs) {
+        BulkPrescriptionResultDTO[] results = new BulkPrescriptionResultDTO[prescriptionDTOs.size()];
+        IntStream.range(0, prescriptionDTOs.size()).parallel().forEach(i -> {
+            String error = validate(prescriptionDTOs.get(i));
+            if (error != null) {
+                results[i] = new BulkPrescriptionResultDTO(i, false, null, error, null);
+            }
+        });
+        
+        // Ids are assigned here so every item can be reported even if the bulk write partially fails
+        List<Prescription> toInsert = new ArrayList<>();
+        List<Integer> requestIndexes = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                Prescription prescription = toPrescription(prescriptionDTOs.get(i));
+                prescription.setId(new ObjectId().toHexString());
+                toInsert.add(prescription);
+                requestIndexes.add(i);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return List.of(results);
+        }
+        
+        boolean[] failed = new boolean[toInsert.size()];
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class)
+                .insert(toInsert)
+                .execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().isEmpty()) {
+                // A write concern failure: no item is known to be durable, so the batch fails
+                throw e;
+            }
+            e.getErrors().forEach(writeError -> {
+                failed[writeError.getIndex()] = true;
+                int requestIndex = requestIndexes.get(writeError.getIndex());
+                results[requestIndex] = new BulkPrescriptionResultDTO(requestIndex, false, null, writeError.getMessage(), null);
+            });
+        }
+        
+        // One allergies query for every patient in the batch
+        Map<Long, String> allergiesByPatient = new HashMap<>();
+        for (Object[] row : patientRepository.findAllergiesByIds(
+                toInsert.stream().map(Prescription::getPatientId).collect(Collectors.toSet()))) {
+            allergiesByPatient.put((Long) row[0], (String) row[1]);
+        }
+        
+        List<Prescription> inserted = new ArrayList<>();
+        for (int i = 0; i < toInsert.size(); i++) {
+            if (!failed[i]) {
+                Prescription prescription = toInsert.get(i);
+                inserted.add(prescription);
+                int requestIndex = requestIndexes.get(i);
+                List<InteractionWarningDTO> warnings = drugInteractionChecker.check(
+                    prescription.getMedications(), allergiesByPatient.get(prescription.getPatientId()));
+                results[requestIndex] = new BulkPrescriptionResultDTO(requestIndex, true, prescription.getId(), null, warnings);
+            }
+        }
+        medicationSummaryService.onPrescriptionsCreated(inserted);
+        for (Prescription prescription : inserted) {
+            auditLogWriter.record("PRESCRIPTION_CREATED", prescription.getDoctorId(), "DOCTOR", Map.of(
+                "prescriptionId", prescription.getId(),
+                "patientId", prescription.getPatientId(),
+                "bulk", true));
+        }
+        return List.of(results);
+    }
+    
+    private String validate(PrescriptionDTO prescriptionDTO) {
+        Set<ConstraintViolation<PrescriptionDTO>> violations = validator.validate(prescriptionDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+    
+    private Prescription toPrescription(PrescriptionDTO prescriptionDTO) {
         Prescription prescription = new Prescription();
         prescription.setAppointmentId(prescriptionDTO.getAppointmentId());
         prescription.setPatientName(prescriptionDTO.getPatientName());
@@ -28,31 +225,76 @@ public class PrescriptionService {
         prescription.setDiagnosis(prescriptionDTO.getDiagnosis());
         prescription.setNotes(prescriptionDTO.getNotes());
         prescription.setNextVisit(prescriptionDTO.getNextVisit());
-        
-        return prescriptionRepository.save(prescription);
+        return prescription;
+    }
+    
+    /**
+     * A patient's prescriptions, newest first; pass the returned cursor to get the next page
+     */
+    public CursorPageDTO<Prescription> getPrescriptionsByPatientId(Long patientId, String cursor, int limit) {
+        return findPage(PrescriptionQueries.byPatient(patientId, cursor, limit), limit);
     }
     
-    public List<Prescription> getPrescriptionsByPatientId(Long patientId) {
-        return prescriptionRepository.findByPatientId(patientId);
+    /**
+     * Active medications and last prescription for a patient, from one summary document
+     */
+    public PatientMedicationSummary getMedicationSummary(Long patientId) {
+        return medicationSummaryService.getSummary(patientId);
     }
     
-    public List<Prescription> getPrescriptionsByDoctorId(Long doctorId) {
-        return prescriptionRepository.findByDoctorId(doctorId);
+    public CursorPageDTO<Prescription> getPrescriptionsByDoctorId(Long doctorId, String cursor, int limit) {
+        return findPage(PrescriptionQueries.byDoctor(doctorId, cursor, limit), limit);
     }
     
     public Optional<Prescription> getPrescriptionById(String id) {
         return prescriptionRepository.findById(id);
     }
     
-    public List<Prescription> getPrescriptionsByAppointmentId(Long appointmentId) {
-        return prescriptionRepository.findByAppointmentId(appointmentId);
+    public CursorPageDTO<Prescription> getPrescriptionsByAppointmentId(Long appointmentId, String cursor, int limit) {
+        return findPage(PrescriptionQueries.byAppointment(appointmentId, cursor, limit), limit);
+    }
+    
+    public CursorPageDTO<Prescription> getAllPrescriptions(String cursor, int limit) {
+        return findPage(PrescriptionQueries.all(cursor, limit), limit);
+    }
+    
+    private CursorPageDTO<Prescription> findPage(Query query, int limit) {
+        return PrescriptionQueries.toPage(mongoTemplate.find(query, Prescription.class), limit);
     }
     
-    public List<Prescription> getAllPrescriptions() {
-        return prescriptionRepository.findAll();
+    /**
+     * Change a prescription's status with a single atomic update, returning the updated prescription
+     */
+    public Prescription updatePrescriptionStatus(String id, String status) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        Update update = new Update().set("status", status);
+        // Returns the document as it was before the update, so the summary knows the old status
+        Prescription prescription = mongoTemplate.findAndModify(query, update, Prescription.class);
+        if (prescription == null) {
+            throw new RuntimeException("Prescription not found");
+        }
+        String previousStatus = prescription.getStatus();
+        prescription.setStatus(status);
+        medicationSummaryService.onPrescriptionStatusChanged(prescription, previousStatus);
+        return prescription;
     }
     
     public void deletePrescription(String id) {
-        prescriptionRepository.deleteById(id);
+        ClinicEvents.PrescriptionWrite event = new ClinicEvents.PrescriptionWrite();
+        event.start();
+        boolean success = false;
+        Prescription deleted = null;
+        try {
+            deleted = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Prescription.class);
+            if (deleted != null) {
+                medicationSummaryService.onPrescriptionDeleted(deleted);
+                auditLogWriter.record("PRESCRIPTION_DELETED", null, null, Map.of(
+                    "prescriptionId", id,
+                    "patientId", deleted.getPatientId()));
+            }
+            success = true;
+        } finally {
+            event.finish(deleted != null ? deleted.getDoctorId() : null, 0, success);
+        }
     }
 }
\ No newline at end of file
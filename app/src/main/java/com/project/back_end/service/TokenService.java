@@ -1,5 +1,6 @@
 package com.project.back_end.service;
 
+import com.project.back_end.monitoring.ClinicEvents;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -70,15 +71,20 @@ public class TokenService {
      * Validate JWT token
      */
     public boolean validateToken(String token) {
+        ClinicEvents.TokenVerification event = new ClinicEvents.TokenVerification();
+        event.start();
+        boolean valid;
         try {
             Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
                 .build()
                 .parseClaimsJws(token);
-            return true;
+            valid = true;
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            valid = false;
         }
+        event.finish(null, 0, valid);
+        return valid;
     }
     
     /**
@@ -0,0 +1,20 @@
+-- Finished appointments (COMPLETED, CANCELLED, NO_SHOW) older than
+-- clinic.archive.horizon-months, moved here in chunks by AppointmentArchiveService.
+-- A separate table rather than PARTITION BY RANGE: MySQL does not allow partitioning
+-- InnoDB tables that have foreign keys, and appointment references patient and doctor.
+CREATE TABLE IF NOT EXISTS appointment_archive (
+    id BIGINT PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    appointment_time DATETIME NOT NULL,
+    status VARCHAR(20) NULL,
+    reason TEXT NULL,
+    notes TEXT NULL,
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME NULL,
+    archived_at DATETIME NOT NULL,
+    INDEX idx_archive_doctor_time (doctor_id, appointment_time),
+    INDEX idx_archive_patient_time (patient_id, appointment_time),
+    CONSTRAINT fk_archive_patient FOREIGN KEY (patient_id) REFERENCES patient (id) ON DELETE CASCADE,
+    CONSTRAINT fk_archive_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id) ON DELETE CASCADE
+);
@@ -0,0 +1,25 @@
+-- Appointment changes written in the same transaction as the appointment itself and
+-- delivered to AppointmentEventSubscriber beans by OutboxRelay. Published rows keep
+-- published_at until the retention sweep deletes them.
+CREATE TABLE IF NOT EXISTS appointment_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(40) NOT NULL,
+    appointment_id BIGINT NULL,
+    doctor_id BIGINT NOT NULL,
+    patient_id BIGINT NULL,
+    appointment_time DATETIME NULL,
+    status VARCHAR(20) NULL,
+    payload TEXT NULL,
+    created_at DATETIME NOT NULL,
+    published_at DATETIME NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    INDEX idx_outbox_unpublished (published_at, id),
+    INDEX idx_outbox_doctor (doctor_id, id)
+);
+
+-- One row per doctor. AppointmentOutbox bumps it before inserting an event, and the row
+-- lock held to commit keeps each doctor's outbox ids in commit order.
+CREATE TABLE IF NOT EXISTS outbox_doctor_sequence (
+    doctor_id BIGINT PRIMARY KEY,
+    seq BIGINT NOT NULL
+);
@@ -0,0 +1,20 @@
+-- Per-doctor, per-day appointment counts by status and offered minutes, maintained
+-- by AppointmentService and AppointmentSweepService in the same transaction as the
+-- appointment change. Reports read this table instead of the appointment history.
+CREATE TABLE IF NOT EXISTS doctor_daily_rollup (
+    doctor_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    scheduled_count INT NOT NULL DEFAULT 0,
+    completed_count INT NOT NULL DEFAULT 0,
+    cancelled_count INT NOT NULL DEFAULT 0,
+    no_show_count INT NOT NULL DEFAULT 0,
+    offered_minutes INT NOT NULL DEFAULT 0,
+    updated_at DATETIME NULL,
+    PRIMARY KEY (doctor_id, day),
+    INDEX idx_rollup_day (day),
+    CONSTRAINT fk_rollup_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id) ON DELETE CASCADE
+);
+
+-- Existing installs: populate from history with POST /api/reports/rebuild?from=...&to=...,
+-- which processes the range in chunks of days (clinic.reports.rebuild-chunk-days)
+-- in the background; GET /api/reports/rebuild for its status.
@@ -0,0 +1,8 @@
+-- Soft deactivation for doctors. Listings, search, availability and booking filter on
+-- is_active; DoctorDeactivationService purges long-inactive doctors in chunks, finding
+-- them through idx_doctor_active_deactivated.
+ALTER TABLE doctor
+    ADD COLUMN is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    ADD COLUMN deactivated_at DATETIME NULL,
+    ADD INDEX idx_doctor_active_specialty (is_active, specialty),
+    ADD INDEX idx_doctor_active_deactivated (is_active, deactivated_at);
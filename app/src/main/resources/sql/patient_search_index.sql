@@ -0,0 +1,11 @@
+-- Full-text index backing PatientService.searchPatients.
+-- InnoDB maintains it transactionally, so patient inserts, updates and deletes
+-- are reflected without any application-side reindexing.
+ALTER TABLE patient
+    ADD FULLTEXT INDEX ft_patient_search (name, email, phone);
+
+-- B-tree index for the short-term name prefix fallback (PatientRepository.findByNameLike).
+-- The column keeps its case-insensitive collation, so the LIKE needs no LOWER() and can
+-- range-scan this index, which also returns rows already in name order.
+ALTER TABLE patient
+    ADD INDEX idx_patient_name (name);
@@ -0,0 +1,16 @@
+-- Per-patient last completed and next scheduled visit, maintained by
+-- AppointmentService on book, complete and cancel. Recall lists read this table
+-- instead of anti-joining the appointment history.
+CREATE TABLE IF NOT EXISTS patient_visit_summary (
+    patient_id BIGINT PRIMARY KEY,
+    last_visit_at DATETIME NULL,
+    next_visit_at DATETIME NULL,
+    updated_at DATETIME NULL,
+    INDEX idx_visit_summary_last_visit (last_visit_at),
+    INDEX idx_visit_summary_next_visit (next_visit_at),
+    CONSTRAINT fk_visit_summary_patient FOREIGN KEY (patient_id) REFERENCES patient (id) ON DELETE CASCADE
+);
+
+-- Existing installs: populate from history with POST /api/patients/visit-summary/backfill,
+-- which processes patients in ID-range chunks (clinic.visit-summary.backfill-chunk-size)
+-- in the background; GET the same path for its status.
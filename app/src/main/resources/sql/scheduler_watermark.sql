@@ -0,0 +1,7 @@
+-- Named progress markers for background jobs: the reminder dispatch watermark, the
+-- archive horizon and the doctor directory version behind the doctor ETags.
+CREATE TABLE IF NOT EXISTS scheduler_watermark (
+    name VARCHAR(60) PRIMARY KEY,
+    watermark DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NULL
+);
@@ -0,0 +1,94 @@
+package com.project.back_end.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+    
+    private static final int DEPTH = 5;
+    private static final int WIDTH = 2_000;
+    
+    @Test
+    void neverUndercountsAndOvercountsWithinBound() {
+        Map<String, Long> exact = skewedCounts();
+        CountMinSketch sketch = sketchOf(exact);
+        long total = exact.values().stream().mapToLong(Long::longValue).sum();
+        // Bound holds per item with probability 1 - e^-depth (about 99.3%)
+        double bound = Math.E / WIDTH * total;
+        
+        int outsideBound = 0;
+        for (Map.Entry<String, Long> item : exact.entrySet()) {
+            long estimate = sketch.estimate(item.getKey());
+            assertTrue(estimate >= item.getValue(), "Undercounted " + item.getKey());
+            if (estimate - item.getValue() > bound) {
+                outsideBound++;
+            }
+        }
+        
+        assertTrue(outsideBound <= exact.size() * 0.03, outsideBound + " items overcounted past e/width");
+        assertEquals(total, sketch.total());
+    }
+    
+    @Test
+    void unseenItemEstimatesStaySmall() {
+        CountMinSketch sketch = sketchOf(skewedCounts());
+        
+        assertTrue(sketch.estimate("never-added") <= Math.E / WIDTH * sketch.total());
+    }
+    
+    @Test
+    void mergeEqualsTheSketchOfTheUnion() {
+        Map<String, Long> exact = skewedCounts();
+        CountMinSketch left = new CountMinSketch(DEPTH, WIDTH);
+        CountMinSketch right = new CountMinSketch(DEPTH, WIDTH);
+        int i = 0;
+        for (Map.Entry<String, Long> item : exact.entrySet()) {
+            // Split every item's count across both sketches, unevenly
+            long leftCount = item.getValue() * (i++ % 3) / 3;
+            left.add(item.getKey(), leftCount);
+            right.add(item.getKey(), item.getValue() - leftCount);
+        }
+        
+        left.merge(right);
+        
+        assertArrayEquals(sketchOf(exact).toByteArray(), left.toByteArray());
+    }
+    
+    @Test
+    void byteEncodingRoundTrips() {
+        CountMinSketch sketch = sketchOf(skewedCounts());
+        
+        CountMinSketch decoded = CountMinSketch.fromByteArray(sketch.toByteArray());
+        
+        assertArrayEquals(sketch.toByteArray(), decoded.toByteArray());
+        assertEquals(sketch.estimate("item-0"), decoded.estimate("item-0"));
+    }
+    
+    @Test
+    void rejectsMergeAcrossDimensions() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new CountMinSketch(DEPTH, WIDTH).merge(new CountMinSketch(DEPTH, WIDTH / 2)));
+    }
+    
+    // 1000 items with Zipf-like counts: item-0 is the most frequent
+    private static Map<String, Long> skewedCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            counts.put("item-" + i, 10_000L / (i + 1) + 1);
+        }
+        return counts;
+    }
+    
+    private static CountMinSketch sketchOf(Map<String, Long> counts) {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        counts.forEach(sketch::add);
+        return sketch;
+    }
+}
@@ -0,0 +1,79 @@
+package com.project.back_end.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+    
+    private static final List<String> HEAVY = List.of("cardiology", "dermatology", "neurology", "oncology", "pediatrics");
+    private static final int[] HEAVY_COUNTS = {1_000, 800, 600, 400, 200};
+    private static final int NOISE_ITEMS = 5_000;
+    
+    @Test
+    void findsTheMostFrequentItemsInOrder() {
+        HeavyHitters hitters = new HeavyHitters(5, 2_000, 20);
+        feed(hitters, 0, 1);
+        
+        List<Map.Entry<String, Long>> top = hitters.top(HEAVY.size());
+        
+        assertEquals(HEAVY, top.stream().map(Map.Entry::getKey).toList());
+        for (int i = 0; i < HEAVY.size(); i++) {
+            long estimate = top.get(i).getValue();
+            assertTrue(estimate >= HEAVY_COUNTS[i], "Undercounted " + HEAVY.get(i));
+            assertTrue(estimate - HEAVY_COUNTS[i] <= Math.E / 2_000 * hitters.total(),
+                "Overcounted " + HEAVY.get(i) + " past e/width");
+        }
+    }
+    
+    @Test
+    void mergeEqualsTheHeavyHittersOfTheUnion() {
+        HeavyHitters even = new HeavyHitters(5, 2_000, 20);
+        HeavyHitters odd = new HeavyHitters(5, 2_000, 20);
+        HeavyHitters union = new HeavyHitters(5, 2_000, 20);
+        feed(even, 0, 2);
+        feed(odd, 1, 2);
+        feed(union, 0, 1);
+        
+        even.merge(odd);
+        
+        assertEquals(union.total(), even.total());
+        List<Map.Entry<String, Long>> merged = even.top(HEAVY.size());
+        assertEquals(union.top(HEAVY.size()).stream().map(Map.Entry::getKey).toList(),
+            merged.stream().map(Map.Entry::getKey).toList());
+        // Merging re-reads every candidate from the merged sketch, which never undercounts
+        for (int i = 0; i < HEAVY.size(); i++) {
+            assertTrue(merged.get(i).getValue() >= HEAVY_COUNTS[i], "Undercounted " + HEAVY.get(i));
+        }
+    }
+    
+    @Test
+    void topIsCappedAtTheCandidateCount() {
+        HeavyHitters hitters = new HeavyHitters(5, 2_000, 3);
+        feed(hitters, 0, 1);
+        
+        assertEquals(3, hitters.top(10).size());
+        assertEquals(HEAVY.subList(0, 3), hitters.top(10).stream().map(Map.Entry::getKey).toList());
+    }
+    
+    // Interleaves heavy and noise items; feeds every step-th occurrence starting at offset
+    private static void feed(HeavyHitters hitters, int offset, int step) {
+        int occurrence = 0;
+        for (int round = 0; round < HEAVY_COUNTS[0]; round++) {
+            for (int i = 0; i < HEAVY.size(); i++) {
+                if (round < HEAVY_COUNTS[i] && occurrence++ % step == offset) {
+                    hitters.add(HEAVY.get(i));
+                }
+            }
+            for (int noise = round * NOISE_ITEMS / HEAVY_COUNTS[0]; noise < (round + 1) * NOISE_ITEMS / HEAVY_COUNTS[0]; noise++) {
+                if (occurrence++ % step == offset) {
+                    hitters.add("noise-" + noise);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.project.back_end.analytics;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+    
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    
+    // Standard error at precision 14 is about 0.8%; 4% is five standard errors
+    private static final int PRECISION = 14;
+    private static final double TOLERANCE = 0.04;
+    
+    @Test
+    void estimatesLargeCardinalityWithinErrorBound() {
+        HyperLogLog sketch = sketchOf(0, 200_000);
+        
+        assertWithinTolerance(200_000, sketch.estimate());
+    }
+    
+    @Test
+    void estimatesSmallCardinalityWithLinearCounting() {
+        HyperLogLog sketch = sketchOf(0, 1_000);
+        
+        assertWithinTolerance(1_000, sketch.estimate());
+        assertEquals(0, new HyperLogLog(PRECISION).estimate());
+    }
+    
+    @Test
+    void repeatedValuesDoNotChangeTheEstimate() {
+        HyperLogLog sketch = sketchOf(0, 5_000);
+        long before = sketch.estimate();
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(HASH.hashLong(i).asLong());
+        }
+        
+        assertEquals(before, sketch.estimate());
+    }
+    
+    @Test
+    void mergeEqualsTheSketchOfTheUnion() {
+        HyperLogLog left = sketchOf(0, 60_000);
+        HyperLogLog right = sketchOf(40_000, 100_000);
+        HyperLogLog union = sketchOf(0, 100_000);
+        
+        left.merge(right);
+        
+        assertArrayEquals(union.toByteArray(), left.toByteArray());
+        assertWithinTolerance(100_000, left.estimate());
+    }
+    
+    @Test
+    void byteEncodingRoundTrips() {
+        HyperLogLog sketch = sketchOf(0, 10_000);
+        
+        HyperLogLog decoded = HyperLogLog.fromByteArray(sketch.toByteArray());
+        
+        assertEquals(sketch.estimate(), decoded.estimate());
+    }
+    
+    @Test
+    void rejectsMergeAcrossPrecisions() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(14)));
+    }
+    
+    private static HyperLogLog sketchOf(int fromInclusive, int toExclusive) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = fromInclusive; i < toExclusive; i++) {
+            sketch.add(HASH.hashLong(i).asLong());
+        }
+        return sketch;
+    }
+    
+    private static void assertWithinTolerance(long expected, long estimate) {
+        double error = Math.abs(estimate - expected) / (double) expected;
+        assertTrue(error <= TOLERANCE, "Estimate " + estimate + " is " + error + " away from " + expected);
+    }
+}
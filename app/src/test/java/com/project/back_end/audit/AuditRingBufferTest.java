@@ -0,0 +1,128 @@
+package com.project.back_end.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditRingBufferTest {
+    
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(1024, new AuditRingBuffer<String>(1000).capacity());
+        assertEquals(1024, new AuditRingBuffer<String>(1024).capacity());
+        assertEquals(2048, new AuditRingBuffer<String>(1025).capacity());
+    }
+    
+    @Test
+    void fullBufferRejectsUntilDrained() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(8);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        
+        assertFalse(buffer.offer(8));
+        assertEquals(8, buffer.size());
+        
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(1, buffer.drainTo(drained, 1));
+        assertTrue(buffer.offer(8));
+        assertFalse(buffer.offer(9));
+        
+        assertEquals(8, buffer.drainTo(drained, 100));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), drained);
+        assertEquals(0, buffer.size());
+    }
+    
+    @Test
+    void keepsFifoOrderAcrossManyWraparounds() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(8);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        // Offer five and drain three per round, draining fully whenever it fills, for many laps
+        for (int round = 0; round < 500; round++) {
+            for (int i = 0; i < 5; i++) {
+                if (!buffer.offer(next)) {
+                    buffer.drainTo(drained, Integer.MAX_VALUE);
+                    assertTrue(buffer.offer(next));
+                }
+                next++;
+            }
+            buffer.drainTo(drained, 3);
+        }
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+        
+        assertEquals(next, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, (int) drained.get(i));
+        }
+    }
+    
+    @Test
+    void drainStopsAtMaxElementsAndOnEmpty() {
+        AuditRingBuffer<String> buffer = new AuditRingBuffer<>(16);
+        List<String> drained = new ArrayList<>();
+        
+        assertEquals(0, buffer.drainTo(drained, 10));
+        buffer.offer("a");
+        buffer.offer("b");
+        buffer.offer("c");
+        
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertEquals(1, buffer.drainTo(drained, 10));
+        assertEquals(List.of("a", "b", "c"), drained);
+    }
+    
+    @Test
+    void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        AuditRingBuffer<long[]> buffer = new AuditRingBuffer<>(256);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        
+        start.countDown();
+        long[] lastSeen = {-1, -1, -1, -1};
+        List<long[]> batch = new ArrayList<>();
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            batch.clear();
+            received += buffer.drainTo(batch, 512);
+            for (long[] element : batch) {
+                int producer = (int) element[0];
+                assertEquals(lastSeen[producer] + 1, element[1], "Producer " + producer + " out of order");
+                lastSeen[producer] = element[1];
+            }
+        }
+        pool.shutdown();
+        
+        assertEquals(producers * perProducer, received);
+        assertEquals(0, buffer.size());
+    }
+}
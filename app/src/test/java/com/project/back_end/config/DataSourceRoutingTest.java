@@ -0,0 +1,94 @@
+package com.project.back_end.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing against two embedded databases standing in for the primary and the replica;
+ * each holds a marker row naming itself, so a query shows where it was sent.
+ */
+class DataSourceRoutingTest {
+    
+    private final ReplicaLagGuard guard = new ReplicaLagGuard();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    
+    @BeforeEach
+    void wireRouting() {
+        ReflectionTestUtils.setField(guard, "lagWindowMs", 2_000L);
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        
+        DataSourceRoutingConfig.RoutingDataSource routing = new DataSourceRoutingConfig.RoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+            DataSourceRoutingConfig.Route.PRIMARY, primary,
+            DataSourceRoutingConfig.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+    
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> marker()));
+    }
+    
+    @Test
+    void readWriteTransactionsGoToThePrimary() {
+        assertEquals("primary", readWrite.execute(status -> marker()));
+    }
+    
+    @Test
+    void readAfterOwnWriteGoesToThePrimaryThenBackToTheReplica() {
+        readWrite.executeWithoutResult(status -> guard.recordWrite("doctor:1"));
+        
+        String pinnedRead = readOnly.execute(status -> {
+            guard.pinPrimaryIfRecentlyWritten("doctor:1");
+            return marker();
+        });
+        String otherRead = readOnly.execute(status -> {
+            guard.pinPrimaryIfRecentlyWritten("doctor:2");
+            return marker();
+        });
+        
+        assertEquals("primary", pinnedRead);
+        assertEquals("replica", otherRead);
+    }
+    
+    @Test
+    void onPrimarySendsItsReadOnlyTransactionsToThePrimary() {
+        assertEquals("primary", guard.onPrimary(() -> readOnly.execute(status -> marker())));
+        assertEquals("replica", readOnly.execute(status -> marker()));
+    }
+    
+    private String marker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+    
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(20))");
+        jdbc.update("DELETE FROM marker");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
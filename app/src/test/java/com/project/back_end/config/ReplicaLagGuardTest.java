@@ -0,0 +1,132 @@
+package com.project.back_end.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaLagGuardTest {
+    
+    private ReplicaLagGuard guard;
+    
+    @BeforeEach
+    void createGuard() {
+        guard = new ReplicaLagGuard();
+        ReflectionTestUtils.setField(guard, "lagWindowMs", 2_000L);
+    }
+    
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+    
+    @Test
+    void recentWritePinsTheReadUntilItsTransactionCompletes() {
+        guard.recordWrite("doctor:1");
+        
+        beginReadOnlyTransaction();
+        guard.pinPrimaryIfRecentlyWritten("doctor:1");
+        assertTrue(ReplicaLagGuard.isPrimaryPinned());
+        completeTransaction();
+        
+        assertFalse(ReplicaLagGuard.isPrimaryPinned());
+    }
+    
+    @Test
+    void otherKeysAreNotPinned() {
+        guard.recordWrite("doctor:1");
+        
+        beginReadOnlyTransaction();
+        guard.pinPrimaryIfRecentlyWritten("doctor:2", "patient:1");
+        
+        assertFalse(ReplicaLagGuard.isPrimaryPinned());
+    }
+    
+    @Test
+    void writeInsideATransactionCountsOnlyOnceCommitted() {
+        beginReadOnlyTransaction();
+        guard.recordWrite("patient:7");
+        assertFalse(guard.recentlyWrittenAny("patient"));
+        
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        
+        assertTrue(guard.recentlyWrittenAny("patient"));
+    }
+    
+    @Test
+    void writesOlderThanTheLagWindowAreNotPinned() throws InterruptedException {
+        ReflectionTestUtils.setField(guard, "lagWindowMs", 20L);
+        guard.recordWrite("doctor:1");
+        Thread.sleep(50);
+        
+        beginReadOnlyTransaction();
+        guard.pinPrimaryIfRecentlyWritten("doctor:1");
+        
+        assertFalse(ReplicaLagGuard.isPrimaryPinned());
+        assertFalse(guard.recentlyWrittenAny("doctor"));
+    }
+    
+    @Test
+    void neverPinsOutsideATransaction() {
+        guard.recordWrite("doctor:1");
+        
+        guard.pinPrimaryIfRecentlyWritten("doctor:1");
+        
+        assertFalse(ReplicaLagGuard.isPrimaryPinned());
+    }
+    
+    @Test
+    void recentlyWrittenAnyMatchesTheKeyNamespace() {
+        guard.recordWrite("doctor:42");
+        
+        assertTrue(guard.recentlyWrittenAny("doctor"));
+        assertFalse(guard.recentlyWrittenAny("patient"));
+    }
+    
+    @Test
+    void onPrimaryPinsForTheReadAndReleasesAfterwards() {
+        boolean pinnedInside = guard.onPrimary(ReplicaLagGuard::isPrimaryPinned);
+        
+        assertTrue(pinnedInside);
+        assertFalse(ReplicaLagGuard.isPrimaryPinned());
+    }
+    
+    @Test
+    void nestedPinsKeepTheOuterPinUntilItEnds() {
+        guard.recordWrite("doctor:1");
+        
+        guard.onPrimary(() -> {
+            beginReadOnlyTransaction();
+            guard.pinPrimaryIfRecentlyWritten("doctor:1");
+            completeTransaction();
+            assertTrue(ReplicaLagGuard.isPrimaryPinned(), "Inner transaction released the onPrimary pin");
+            assertEquals(true, guard.onPrimary(ReplicaLagGuard::isPrimaryPinned));
+            assertTrue(ReplicaLagGuard.isPrimaryPinned(), "Nested onPrimary released the outer pin");
+            return null;
+        });
+        
+        assertFalse(ReplicaLagGuard.isPrimaryPinned());
+    }
+    
+    private static void beginReadOnlyTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+    
+    private static void completeTransaction() {
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+            TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+}
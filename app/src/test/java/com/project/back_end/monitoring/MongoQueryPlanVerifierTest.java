@@ -0,0 +1,47 @@
+package com.project.back_end.monitoring;
+
+import com.project.back_end.config.MongoIndexConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs explain on every paged prescription query against the indexes MongoIndexConfig
+ * creates, and fails if any winning plan scans the whole collection.
+ */
+@DataMongoTest(properties = "clinic.diagnostics.mongo.verify-query-plans=true")
+@Import({MongoIndexConfig.class, MongoQueryPlanVerifier.class})
+@Testcontainers(disabledWithoutDocker = true)
+class MongoQueryPlanVerifierTest {
+    
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+    
+    @Autowired
+    private MongoQueryPlanVerifier verifier;
+    
+    @Test
+    void everyPrescriptionQueryShapeUsesAnIndex() {
+        assertEquals(List.of(), verifier.findCollectionScans(MongoQueryPlanVerifier.queryShapes()));
+    }
+    
+    @Test
+    void unindexedFilterIsReportedAsCollectionScan() {
+        Map<String, Query> shapes = Map.of("byNotes", Query.query(Criteria.where("notes").is("none")));
+        
+        assertEquals(List.of("byNotes"), verifier.findCollectionScans(shapes));
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.back_end.monitoring;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test helper that fails when a call issues more SQL statements than its budget.
+ * Relies on SqlStatementRecorder being installed, which SqlDiagnosticsConfig does.
+ *
+ * <pre>
+ * List&lt;AppointmentDTO&gt; appointments = SqlStatementBudget.assertMaxStatements(1,
+ *     () -&gt; appointmentService.getAppointmentsForPatient(patientId));
+ * </pre>
+ */
+public final class SqlStatementBudget {
+    
+    private SqlStatementBudget() {
+    }
+    
+    /**
+     * Run the call and assert it prepared at most maxStatements; returns what the call returned
+     */
+    public static <T> T assertMaxStatements(int maxStatements, Supplier<T> call) {
+        try (SqlStatementRecorder.Scope scope = SqlStatementRecorder.openScope()) {
+            T value = call.get();
+            assertTrue(scope.getStatementCount() <= maxStatements, () -> describe(maxStatements, scope));
+            return value;
+        }
+    }
+    
+    /**
+     * Variant for calls that return nothing
+     */
+    public static void assertMaxStatements(int maxStatements, Runnable call) {
+        assertMaxStatements(maxStatements, () -> {
+            call.run();
+            return null;
+        });
+    }
+    
+    private static String describe(int maxStatements, SqlStatementRecorder.Scope scope) {
+        StringBuilder message = new StringBuilder()
+            .append("Expected at most ").append(maxStatements)
+            .append(" SQL statements, ").append(scope.getStatementCount()).append(" were issued:");
+        for (Map.Entry<String, Integer> statement : scope.getStatements().entrySet()) {
+            message.append("\n  ").append(statement.getValue()).append("x ").append(statement.getKey());
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.project.back_end.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+    
+    // 1 s ticks, 8 slots, 3 levels: level 0 spans 8 s, level 1 64 s, level 2 512 s
+    private static final long TICK = 1_000;
+    private static final int WHEEL_SIZE = 8;
+    private static final int LEVELS = 3;
+    private static final long TOP_LEVEL_SPAN = TICK * WHEEL_SIZE * WHEEL_SIZE * WHEEL_SIZE;
+    
+    @Test
+    void firesInTheTickContainingTheDeadline() {
+        HierarchicalTimingWheel<String> wheel = wheel();
+        wheel.schedule(1, 5_500, "reminder");
+        
+        assertEquals(List.of(), wheel.advance(4_999));
+        assertEquals(List.of("reminder"), wheel.advance(5_000));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void cascadesThroughEveryLevelAndFiresOnTime() {
+        HierarchicalTimingWheel<Long> wheel = wheel();
+        Random random = new Random(42);
+        Map<Long, Long> dueTick = new HashMap<>();
+        for (long key = 0; key < 2_000; key++) {
+            long deadline = TICK + (long) (random.nextDouble() * (TOP_LEVEL_SPAN - TICK));
+            assertTrue(wheel.schedule(key, deadline, key));
+            dueTick.put(key, deadline - deadline % TICK);
+        }
+        
+        List<Long> fired = new ArrayList<>();
+        for (long now = TICK; now <= TOP_LEVEL_SPAN; now += TICK) {
+            for (Long key : wheel.advance(now)) {
+                assertEquals((long) dueTick.get(key), now, "Timer " + key + " fired in the wrong tick");
+                fired.add(key);
+            }
+        }
+        
+        assertEquals(dueTick.size(), fired.size());
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void advancingInOneLargeStepFiresEverythingDueInTickOrder() {
+        HierarchicalTimingWheel<String> wheel = wheel();
+        wheel.schedule(3, 300_000, "level two");
+        wheel.schedule(2, 20_000, "level one");
+        wheel.schedule(1, 2_000, "level zero");
+        
+        assertEquals(List.of("level zero", "level one", "level two"), wheel.advance(400_000));
+    }
+    
+    @Test
+    void cancelledTimersNeverFire() {
+        HierarchicalTimingWheel<String> wheel = wheel();
+        wheel.schedule(1, 3_000, "level zero");
+        wheel.schedule(2, 30_000, "level one");
+        wheel.schedule(3, 300_000, "level two");
+        wheel.schedule(4, 3 * TOP_LEVEL_SPAN, "overflow");
+        wheel.schedule(5, 30_000, "kept");
+        
+        assertTrue(wheel.cancel(1));
+        assertTrue(wheel.cancel(2));
+        assertTrue(wheel.cancel(3));
+        assertTrue(wheel.cancel(4));
+        assertFalse(wheel.cancel(4));
+        assertFalse(wheel.cancel(99));
+        assertEquals(1, wheel.size());
+        
+        assertEquals(List.of("kept"), wheel.advance(4 * TOP_LEVEL_SPAN));
+    }
+    
+    @Test
+    void cancelAfterCascadeRemovesTheTimerFromItsNewSlot() {
+        HierarchicalTimingWheel<String> wheel = wheel();
+        wheel.schedule(1, 70_000, "cascaded");
+        // At 64 s the level-one slot cascades the timer down to level zero
+        wheel.advance(65_000);
+        
+        assertTrue(wheel.cancel(1));
+        assertEquals(List.of(), wheel.advance(80_000));
+    }
+    
+    @Test
+    void timersBeyondTheTopLevelWaitInOverflow() {
+        HierarchicalTimingWheel<String> wheel = wheel();
+        long deadline = 3 * TOP_LEVEL_SPAN + 17 * TICK;
+        wheel.schedule(1, deadline, "far future");
+        
+        assertEquals(List.of(), wheel.advance(deadline - 1));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("far future"), wheel.advance(deadline));
+    }
+    
+    @Test
+    void reschedulingReplacesTheEarlierDeadline() {
+        HierarchicalTimingWheel<String> wheel = wheel();
+        wheel.schedule(1, 5_000, "first");
+        wheel.schedule(1, 90_000, "second");
+        
+        assertEquals(List.of(), wheel.advance(60_000));
+        assertEquals(List.of("second"), wheel.advance(90_000));
+    }
+    
+    @Test
+    void refusesDeadlinesAlreadyDue() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, LEVELS, 10_400);
+        
+        assertFalse(wheel.schedule(1, 10_999, "this tick"));
+        assertTrue(wheel.schedule(2, 11_000, "next tick"));
+        assertEquals(1, wheel.size());
+    }
+    
+    private static <T> HierarchicalTimingWheel<T> wheel() {
+        return new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, LEVELS, 0);
+    }
+}
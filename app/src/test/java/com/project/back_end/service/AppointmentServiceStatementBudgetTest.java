@@ -0,0 +1,95 @@
+package com.project.back_end.service;
+
+import com.project.back_end.audit.AuditLogWriter;
+import com.project.back_end.config.ReplicaLagGuard;
+import com.project.back_end.dto.AppointmentDTO;
+import com.project.back_end.model.Appointment;
+import com.project.back_end.model.Doctor;
+import com.project.back_end.model.Patient;
+import com.project.back_end.monitoring.ServiceMetrics;
+import com.project.back_end.monitoring.SqlDiagnosticsConfig;
+import com.project.back_end.monitoring.SqlStatementBudget;
+import com.project.back_end.outbox.AppointmentOutbox;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pins the number of SQL statements on the appointment read paths, so a lazy
+ * association that starts loading per row fails the build instead of a page.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AppointmentService.class, SqlDiagnosticsConfig.class})
+@Testcontainers(disabledWithoutDocker = true)
+class AppointmentServiceStatementBudgetTest {
+    
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+    
+    @Autowired
+    private AppointmentService appointmentService;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @MockBean
+    private ServiceMetrics serviceMetrics;
+    
+    @MockBean
+    private ReplicaLagGuard replicaLagGuard;
+    
+    @MockBean
+    private PatientVisitSummaryService visitSummaryService;
+    
+    @MockBean
+    private AuditLogWriter auditLogWriter;
+    
+    @MockBean
+    private AppointmentOutbox appointmentOutbox;
+    
+    @MockBean
+    private AppointmentReportService reportService;
+    
+    @MockBean
+    private AppointmentArchiveService archiveService;
+    
+    @Test
+    void appointmentsForPatientLoadInOneStatementWhateverTheDoctorCount() {
+        Patient patient = new Patient();
+        patient.setName("Budget Patient");
+        patient.setEmail("budget.patient@example.com");
+        patient.setPassword("secret");
+        patient.setPhone("5550100");
+        entityManager.persist(patient);
+        for (int i = 0; i < 5; i++) {
+            Doctor doctor = entityManager.persist(
+                new Doctor("Doctor " + i, "doctor" + i + "@example.com", "secret", "Cardiology"));
+            entityManager.persist(new Appointment(patient, doctor, LocalDateTime.now().plusDays(i + 1)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManager().getEntityManagerFactory().getCache().evictAll();
+        
+        // Archive is off (the mock answers false), so this is the live appointment query alone
+        List<AppointmentDTO> appointments = SqlStatementBudget.assertMaxStatements(1,
+            () -> appointmentService.getAppointmentsForPatient(patient.getId()));
+        
+        assertEquals(5, appointments.size());
+        assertEquals("Budget Patient", appointments.get(0).getPatientName());
+    }
+}
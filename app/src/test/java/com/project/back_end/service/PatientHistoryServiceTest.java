@@ -0,0 +1,85 @@
+package com.project.back_end.service;
+
+import com.project.back_end.dto.AppointmentDTO;
+import com.project.back_end.dto.HistoryEntryDTO;
+import com.project.back_end.model.Prescription;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PatientHistoryServiceTest {
+    
+    private static final LocalDateTime JAN = LocalDateTime.of(2024, 1, 10, 9, 0);
+    private static final LocalDateTime FEB = LocalDateTime.of(2024, 2, 10, 9, 0);
+    private static final LocalDateTime MAR = LocalDateTime.of(2024, 3, 10, 9, 0);
+    
+    @Test
+    void attachesPrescriptionsToTheirAppointment() {
+        AppointmentDTO visit = appointment(1L, FEB);
+        Prescription first = prescription("p1", 1L, FEB.plusMinutes(20));
+        Prescription second = prescription("p2", 1L, FEB.plusMinutes(25));
+        
+        List<HistoryEntryDTO> timeline = PatientHistoryService.merge(List.of(visit), List.of(first, second));
+        
+        assertEquals(1, timeline.size());
+        HistoryEntryDTO entry = timeline.get(0);
+        assertEquals(HistoryEntryDTO.Type.APPOINTMENT, entry.getType());
+        assertSame(visit, entry.getAppointment());
+        assertEquals(FEB, entry.getTime());
+        assertEquals(List.of(first, second), entry.getPrescriptions());
+    }
+    
+    @Test
+    void unlinkedPrescriptionsBecomeEntriesOfTheirOwn() {
+        // p2 names an appointment the other source did not return (archived, or that source failed)
+        Prescription walkIn = prescription("p1", null, MAR);
+        Prescription orphan = prescription("p2", 99L, JAN);
+        
+        List<HistoryEntryDTO> timeline = PatientHistoryService.merge(List.of(appointment(1L, FEB)),
+            List.of(walkIn, orphan));
+        
+        assertEquals(List.of(HistoryEntryDTO.Type.PRESCRIPTION, HistoryEntryDTO.Type.APPOINTMENT,
+            HistoryEntryDTO.Type.PRESCRIPTION), timeline.stream().map(HistoryEntryDTO::getType).toList());
+        assertEquals(List.of(walkIn), timeline.get(0).getPrescriptions());
+        assertNull(timeline.get(0).getAppointment());
+        assertEquals(List.of(orphan), timeline.get(2).getPrescriptions());
+    }
+    
+    @Test
+    void ordersNewestFirstWithUndatedEntriesLast() {
+        List<HistoryEntryDTO> timeline = PatientHistoryService.merge(
+            List.of(appointment(1L, JAN), appointment(2L, MAR)),
+            List.of(prescription("p1", null, null), prescription("p2", null, FEB)));
+        
+        assertEquals(Arrays.asList(MAR, FEB, JAN, null),
+            timeline.stream().map(HistoryEntryDTO::getTime).toList());
+    }
+    
+    @Test
+    void eitherSourceMayBeEmpty() {
+        assertEquals(List.of(), PatientHistoryService.merge(List.of(), List.of()));
+        assertEquals(1, PatientHistoryService.merge(List.of(appointment(1L, JAN)), List.of()).size());
+        assertEquals(1, PatientHistoryService.merge(List.of(), List.of(prescription("p1", 1L, JAN))).size());
+    }
+    
+    private static AppointmentDTO appointment(Long id, LocalDateTime time) {
+        AppointmentDTO appointment = new AppointmentDTO();
+        appointment.setId(id);
+        appointment.setAppointmentTime(time);
+        return appointment;
+    }
+    
+    private static Prescription prescription(String id, Long appointmentId, LocalDateTime date) {
+        Prescription prescription = new Prescription();
+        prescription.setId(id);
+        prescription.setAppointmentId(appointmentId);
+        prescription.setPrescriptionDate(date);
+        return prescription;
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.back_end.service;
+
+import com.project.back_end.model.Prescription;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrescriptionQueriesTest {
+    
+    @Test
+    void cursorRoundTripsIntoKeysetPredicate() {
+        Prescription last = new Prescription();
+        last.setId("65a000000000000000000001");
+        last.setPrescriptionDate(LocalDateTime.of(2024, 3, 1, 9, 30));
+        
+        Document filter = PrescriptionQueries.byPatient(7L, PrescriptionQueries.cursorAfter(last), 20).getQueryObject();
+        
+        assertTrue(filter.toJson().contains("65a000000000000000000001"));
+        assertEquals(21, PrescriptionQueries.byPatient(7L, null, 20).getLimit());
+    }
+    
+    @Test
+    void cursorThatIsNotBase64IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PrescriptionQueries.byPatient(7L, "not base64!", 20));
+    }
+    
+    @Test
+    void cursorWithUnparseableDateIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PrescriptionQueries.all(encode("yesterday|abc"), 20));
+        assertThrows(IllegalArgumentException.class, () -> PrescriptionQueries.all(encode("null|abc"), 20));
+    }
+    
+    @Test
+    void cursorWithoutIdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PrescriptionQueries.all(encode("2024-03-01T09:30"), 20));
+    }
+    
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}